@@ -3,24 +3,39 @@ package io.kestra.plugin.influxdb;
 import java.io.BufferedInputStream;
 import java.io.InputStream;
 import java.net.URI;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.influxdb.client.InfluxDBClient;
-import com.influxdb.client.WriteApiBlocking;
+import com.influxdb.client.domain.WritePrecision;
 import com.influxdb.client.write.Point;
 
 import io.kestra.core.models.annotations.Metric;
 import io.kestra.core.models.annotations.Plugin;
 import io.kestra.core.models.annotations.PluginProperty;
 import io.kestra.core.models.executions.metrics.Counter;
+import io.kestra.core.models.executions.metrics.Timer;
 import io.kestra.core.models.property.Property;
 import io.kestra.core.models.tasks.RunnableTask;
 import io.kestra.core.runners.RunContext;
 import io.kestra.core.serializers.FileSerde;
+import io.kestra.core.serializers.JacksonMapper;
+import io.kestra.plugin.influxdb.utils.BatchWriter;
+import io.kestra.plugin.influxdb.utils.LineProtocol;
+import io.kestra.plugin.influxdb.utils.Rejections;
+import io.kestra.plugin.influxdb.utils.SeriesCardinality;
+import io.kestra.plugin.influxdb.utils.SeriesSorter;
+import io.kestra.plugin.influxdb.utils.Throttle;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotNull;
@@ -29,6 +44,8 @@ import lombok.experimental.SuperBuilder;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import static io.kestra.core.utils.Rethrow.throwFunction;
+
 /**
  * Abstract base class for loading data to InfluxDB from files
  */
@@ -44,13 +61,44 @@ import reactor.core.publisher.Mono;
             type = Counter.TYPE,
             unit = "count",
             description = "Number of records written to InfluxDB"
+        ),
+        @Metric(
+            name = "files",
+            type = Counter.TYPE,
+            unit = "count",
+            description = "Number of source files loaded"
+        ),
+        @Metric(
+            name = "throttled",
+            type = Timer.TYPE,
+            description = "Time spent waiting for the write rate limit"
+        ),
+        @Metric(
+            name = "spooled",
+            type = Counter.TYPE,
+            unit = "count",
+            description = "Number of batches spooled while InfluxDB was unavailable, when `spool` is set"
+        ),
+        @Metric(
+            name = "rejected",
+            type = Counter.TYPE,
+            unit = "count",
+            description = "Number of records rejected by InfluxDB and skipped, when `onError=SKIP`"
+        ),
+        @Metric(
+            name = "series",
+            type = Counter.TYPE,
+            unit = "count",
+            description = "Estimated number of distinct series per measurement, tagged with `measurement`"
         )
     }
 )
 public abstract class AbstractLoad extends AbstractTask implements RunnableTask<AbstractLoad.Output> {
+    private static final TypeReference<List<String>> URI_LIST = new TypeReference<>() {};
+
     @Schema(
         title = "Source file URI",
-        description = "URI in internal storage (e.g., `kestra://...`) containing the data to load"
+        description = "URI in internal storage (e.g., `kestra://...`) containing the data to load, or a JSON list of URIs (e.g., `{{ outputs.split.uris }}`) loaded concurrently over a single client"
     )
     @NotNull
     @PluginProperty(internalStorageURI = true, group = "main")
@@ -64,6 +112,65 @@ public abstract class AbstractLoad extends AbstractTask implements RunnableTask<
     @PluginProperty(group = "execution")
     private Property<Integer> chunk = Property.ofValue(1000);
 
+    @Schema(
+        title = "File concurrency",
+        description = "Maximum number of source files loaded in parallel when `from` is a list; defaults to 4"
+    )
+    @Builder.Default
+    @PluginProperty(group = "execution")
+    private Property<Integer> concurrency = Property.ofValue(4);
+
+    @Schema(
+        title = "Write rate limit",
+        description = "Token-bucket limit in points/sec and/or bytes/sec applied before each batch, to keep backfills from starving live ingestion; a smaller `chunk` gives a smoother rate"
+    )
+    @PluginProperty(group = "execution")
+    private RateLimit rateLimit;
+
+    @Schema(
+        title = "Write spool",
+        description = "When set, batches failing because InfluxDB is unavailable (connection errors, 429 and 5xx) are spooled to disk and replayed in order, " +
+            "under `rateLimit`, once the server recovers, while the files keep being read; the task waits up to `maxWait` for them instead of failing."
+    )
+    @PluginProperty(group = "execution")
+    private Spool spool;
+
+    @Schema(
+        title = "Behavior on rejected points",
+        description = "`FAIL` (default) fails the task when a batch is rejected. `SKIP` splits a rejected batch in halves recursively to isolate the invalid lines, " +
+            "writes every valid point and stores the rejected lines with the server error in the `rejectedUri` ION file. " +
+            "With `SKIP`, points without a timestamp get the client time so that retried halves don't create duplicates."
+    )
+    @Builder.Default
+    @PluginProperty(group = "execution")
+    private Property<OnError> onError = Property.ofValue(OnError.FAIL);
+
+    @Schema(
+        title = "Series sort before batching",
+        description = "`NONE` (default) writes points in file order. `WINDOW` sorts each window of `sortWindow` points by series key (measurement and sorted tag set) then timestamp. " +
+            "`FULL` sorts the whole file with an external merge sort, spilling sorted runs of `sortWindow` points to the working directory. " +
+            "Batches then hold fewer series in time order, which lowers server CPU and improves compression."
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    private Property<SortMode> sort = Property.ofValue(SortMode.NONE);
+
+    @Schema(
+        title = "Sort window size",
+        description = "Number of points sorted in memory at once by `sort`; defaults to 100000"
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    private Property<Integer> sortWindow = Property.ofValue(100_000);
+
+    @Schema(
+        title = "Maximum series per measurement",
+        description = "Series keys are counted with a HyperLogLog sketch while points stream through; when the estimate for a measurement exceeds this value, " +
+            "the task fails before writing the next batch. Protects the InfluxDB index from a wrong `tags` setting (e.g. tagging a unique ID column)."
+    )
+    @PluginProperty(group = "advanced")
+    private Property<Long> maxSeries;
+
     /**
      * Abstract method to transform input data into Points
      *
@@ -73,51 +180,260 @@ public abstract class AbstractLoad extends AbstractTask implements RunnableTask<
      */
     protected abstract Flux<Point> source(RunContext runContext, InputStream inputStream) throws Exception;
 
+    /**
+     * Transform input data into line-protocol records, by encoding the points of {@link #source(RunContext, InputStream)}.
+     * Implementations can override it to encode records without going through intermediate points.
+     *
+     * @param runContext the run context
+     * @param inputStream the source data
+     * @param stampTime whether records without a timestamp must get the client time
+     * @return a Flux of records, empty for points without fields
+     */
+    protected Flux<String> lines(RunContext runContext, InputStream inputStream, boolean stampTime) throws Exception {
+        return this.source(runContext, inputStream)
+            .map(point ->
+            {
+                if (stampTime && point.getTime() == null) {
+                    point.time(Instant.now(), WritePrecision.NS);
+                }
+                return LineProtocol.encode(point);
+            });
+    }
+
     @Override
     public Output run(RunContext runContext) throws Exception {
         Logger logger = runContext.logger();
-        URI from = URI.create(runContext.render(this.from).as(String.class).orElseThrow());
-        AtomicInteger count = new AtomicInteger();
+        List<URI> uris = this.uris(runContext);
+
+        OnError renderedOnError = runContext.render(this.onError).as(OnError.class).orElse(OnError.FAIL);
+        SortMode renderedSort = runContext.render(this.sort).as(SortMode.class).orElse(SortMode.NONE);
+        SeriesSorter sorter = new SeriesSorter(runContext, runContext.render(this.sortWindow).as(Integer.class).orElse(100_000));
+        Long renderedMaxSeries = runContext.render(this.maxSeries).as(Long.class).orElse(null);
+        SeriesCardinality cardinality = new SeriesCardinality();
+        String renderedBucket = runContext.render(bucket).as(String.class).orElseThrow();
+        String renderedOrg = runContext.render(org).as(String.class).orElseThrow();
+        Throttle throttle = this.rateLimit != null ? this.rateLimit.throttle(runContext, this.connection) : Throttle.NONE;
 
         try (
-            InfluxDBClient client = this.connection.client(runContext);
-            InputStream inputStream = new BufferedInputStream(runContext.storage().getFile(from), FileSerde.BUFFER_SIZE)
+            InfluxDBClient client = this.client(runContext);
+            Rejections rejections = renderedOnError == OnError.SKIP ? new Rejections(runContext) : null;
+            BatchWriter writer = new BatchWriter(client.getWriteApiBlocking(), renderedBucket, renderedOrg, WritePrecision.NS, throttle)
         ) {
-            WriteApiBlocking writeApi = client.getWriteApiBlocking();
-            String renderedBucket = runContext.render(bucket).as(String.class).orElseThrow();
-            String renderedOrg = runContext.render(org).as(String.class).orElseThrow();
+            if (this.spool != null) {
+                this.spool.apply(runContext, writer);
+            }
+
             Integer renderedChunk = runContext.render(this.chunk).as(Integer.class).orElse(1000);
+            int renderedConcurrency = Math.max(1, runContext.render(this.concurrency).as(Integer.class).orElse(4));
 
-            Mono<Long> result = this.source(runContext, inputStream)
-                .doOnNext(point -> count.incrementAndGet())
-                .buffer(renderedChunk)
-                .map(points ->
-                {
-                    List<Point> batch = new ArrayList<>(points);
-                    writeApi.writePoints(renderedBucket, renderedOrg, batch);
-                    return batch.size();
-                })
-                .count();
+            ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(renderedConcurrency, uris.size())));
+            List<FileLoad> loads = new ArrayList<>();
+
+            try {
+                List<Future<FileLoad>> futures = new ArrayList<>();
+                for (URI uri : uris) {
+                    futures.add(executor.submit(() -> this.load(runContext, writer, uri, renderedChunk, rejections, renderedSort, sorter, cardinality, renderedMaxSeries)));
+                }
 
-            Long batchCount = result.block();
-            runContext.metric(Counter.of("records", count.get()));
+                for (Future<FileLoad> future : futures) {
+                    try {
+                        loads.add(future.get());
+                    } catch (ExecutionException e) {
+                        if (e.getCause() instanceof Exception cause) {
+                            throw cause;
+                        }
+                        throw e;
+                    }
+                }
+                writer.flush();
+            } finally {
+                executor.shutdownNow();
+                this.emitDeferredMetrics(runContext);
+            }
+
+            // after the flush, the records rejected when replaying spooled batches are counted
+            List<FileOutput> files = loads.stream().map(FileLoad::output).toList();
+            int count = files.stream().mapToInt(FileOutput::getRecordCount).sum();
+            long batchCount = files.stream().mapToLong(FileOutput::getBatchCount).sum();
+
+            runContext.metric(Counter.of("records", count));
+            runContext.metric(Counter.of("files", files.size()));
+            if (rejections != null) {
+                runContext.metric(Counter.of("rejected", rejections.count()));
+            }
+            if (throttle != Throttle.NONE) {
+                runContext.metric(Timer.of("throttled", throttle.waited()));
+            }
+            if (writer.spooled() > 0) {
+                runContext.metric(Counter.of("spooled", writer.spooled()));
+            }
+            Map<String, Long> series = cardinality.estimates();
+            series.forEach((measurement, estimate) -> runContext.metric(Counter.of("series", estimate, "measurement", measurement)));
 
             logger.info(
-                "Successfully sent {} batches for {} records",
+                "Successfully sent {} batches for {} records from {} files",
                 batchCount,
-                count.get()
+                count,
+                files.size()
             );
 
-            return Output.builder()
-                .recordCount(count.get())
-                .build();
+            Output.OutputBuilder output = Output.builder()
+                .recordCount(count)
+                .files(files)
+                .series(series);
+
+            if (rejections != null) {
+                if (rejections.count() > 0) {
+                    logger.warn("{} records were rejected by InfluxDB and skipped", rejections.count());
+                }
+
+                output
+                    .rejectedCount(rejections.count())
+                    .rejectedUri(rejections.store());
+            }
+
+            return output.build();
         }
     }
 
+    private FileLoad load(
+        RunContext runContext,
+        BatchWriter writer,
+        URI from,
+        int chunk,
+        Rejections rejections,
+        SortMode sort,
+        SeriesSorter sorter,
+        SeriesCardinality cardinality,
+        Long maxSeries
+    ) throws Exception {
+        AtomicInteger count = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger written = new AtomicInteger();
+
+        try (InputStream inputStream = new BufferedInputStream(runContext.storage().getFile(from), FileSerde.BUFFER_SIZE)) {
+            Flux<String> lines = this.lines(runContext, inputStream, rejections != null)
+                .doOnNext(line -> count.incrementAndGet())
+                .filter(line -> !line.isEmpty())
+                .doOnNext(cardinality::add);
+
+            Flux<String> ordered = switch (sort) {
+                case NONE -> lines;
+                case WINDOW -> sorter.window(lines);
+                case FULL -> sorter.full(lines);
+            };
+
+            Mono<Long> result = ordered
+                .buffer(chunk)
+                .map(throwFunction(batch ->
+                {
+                    cancellation.throwIfCancelled();
+                    if (maxSeries != null) {
+                        cardinality.check(maxSeries);
+                    }
+                    int accepted = writer.write(batch, rejections, rejected::addAndGet);
+                    rejected.addAndGet(batch.size() - accepted);
+                    written.addAndGet(accepted);
+                    return batch.size();
+                }))
+                .count();
+
+            Long batchCount;
+            try {
+                batchCount = result.block();
+            } catch (RuntimeException e) {
+                if (cancellation.isCancelled()) {
+                    runContext.logger().warn("Load of '{}' was cancelled after {} records", from, written.get());
+                    this.deferMetric(Counter.of("records", written.get(), "cancelled", "true"));
+                }
+                throw e;
+            }
+            runContext.logger().debug("Sent {} batches for {} records from '{}'", batchCount, count.get() - rejected.get(), from);
+
+            return new FileLoad(from, count.get(), rejected, batchCount == null ? 0 : batchCount);
+        }
+    }
+
+    /**
+     * Source files of {@code from}, a single URI or a JSON list of URIs.
+     */
+    protected List<URI> uris(RunContext runContext) throws Exception {
+        String rendered = runContext.render(this.from).as(String.class).orElseThrow().trim();
+
+        if (!rendered.startsWith("[")) {
+            return List.of(URI.create(rendered));
+        }
+
+        return JacksonMapper.ofJson().readValue(rendered, URI_LIST)
+            .stream()
+            .map(String::trim)
+            .map(URI::create)
+            .toList();
+    }
+
     @Builder
     @Getter
     public static class Output implements io.kestra.core.models.tasks.Output {
         @Schema(title = "Number of records written to InfluxDB")
         private final Integer recordCount;
+
+        @Schema(title = "Per-file load results, in the order of `from`")
+        private final List<FileOutput> files;
+
+        @Schema(title = "Estimated number of distinct series written per measurement")
+        private final Map<String, Long> series;
+
+        @Schema(
+            title = "Number of records rejected by InfluxDB",
+            description = "Only populated when `onError=SKIP`"
+        )
+        private final Integer rejectedCount;
+
+        @Schema(
+            title = "URI of the rejected records",
+            description = "ION file of `line`/`error` objects; only populated when `onError=SKIP` and at least one record was rejected"
+        )
+        private final URI rejectedUri;
+    }
+
+    /**
+     * Counts of a loaded file, whose rejected records may still grow while its spooled batches are replayed.
+     */
+    private record FileLoad(URI uri, int count, AtomicInteger rejected, long batchCount) {
+        FileOutput output() {
+            return FileOutput.builder()
+                .uri(uri)
+                .recordCount(count - rejected.get())
+                .rejectedCount(rejected.get())
+                .batchCount(batchCount)
+                .build();
+        }
+    }
+
+    @Builder
+    @Getter
+    public static class FileOutput {
+        @Schema(title = "Source file URI")
+        private final URI uri;
+
+        @Schema(title = "Number of records written to InfluxDB from this file")
+        private final Integer recordCount;
+
+        @Schema(title = "Number of records from this file rejected by InfluxDB")
+        private final Integer rejectedCount;
+
+        @Schema(title = "Number of write requests sent for this file")
+        private final Long batchCount;
+    }
+
+    public enum SortMode {
+        NONE,
+        WINDOW,
+        FULL
+    }
+
+    public enum OnError {
+        FAIL,
+        SKIP
     }
 }
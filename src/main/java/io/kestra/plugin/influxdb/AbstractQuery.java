@@ -1,24 +1,29 @@
 package io.kestra.plugin.influxdb;
 
-import java.io.BufferedOutputStream;
-import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
+import io.kestra.core.exceptions.IllegalVariableEvaluationException;
 import io.kestra.core.models.annotations.PluginProperty;
+import io.kestra.core.models.executions.metrics.Counter;
 import io.kestra.core.models.property.Property;
 import io.kestra.core.models.tasks.common.FetchType;
 import io.kestra.core.runners.RunContext;
-import io.kestra.core.serializers.FileSerde;
+import io.kestra.plugin.influxdb.utils.Reservoir;
+import io.kestra.plugin.influxdb.utils.RollingStore;
+import io.kestra.plugin.influxdb.utils.Summaries;
 
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
-import reactor.core.publisher.Flux;
 
 @SuperBuilder
 @ToString
@@ -42,49 +47,208 @@ public abstract class AbstractQuery extends AbstractTask {
     @PluginProperty(group = "execution")
     protected Property<FetchType> fetchType = Property.ofValue(FetchType.NONE);
 
-    protected URI storeResults(RunContext runContext, List<Map<String, Object>> results) throws IOException {
-        File tempFile = runContext.workingDir().createTempFile(".ion").toFile();
+    @Schema(
+        title = "Maximum rows per stored file",
+        description = "With `fetchType: STORE`, roll over to a new ION file after this many rows; each file is uploaded as soon as it is closed and all of them are listed in `uris`"
+    )
+    @PluginProperty(group = "execution")
+    protected Property<Long> maxRowsPerFile;
+
+    @Schema(
+        title = "Maximum bytes per stored file",
+        description = "With `fetchType: STORE`, roll over to a new ION file once it reaches this size in bytes"
+    )
+    @PluginProperty(group = "execution")
+    protected Property<Long> maxBytesPerFile;
+
+    @Schema(
+        title = "Stored file format",
+        description = "With `fetchType: STORE`, `ION` (default) for Kestra tasks, `JSON` to write JSON Lines (`.jsonl`) that DuckDB (`read_json_auto`) and Spark (`spark.read.json`) read directly, " +
+            "or `PARQUET` to write columnar `.parquet` files with one typed column per result column (taken from the `#datatype` annotations) and dictionary-encoded strings; " +
+            "a Parquet file holds the columns of its first row and a new file starts when a row brings other columns or types, and no file is written when the result is empty"
+    )
+    @Builder.Default
+    @PluginProperty(group = "execution")
+    protected Property<Format> format = Property.ofValue(Format.ION);
+
+    @Schema(
+        title = "Stored file compression",
+        description = "With `fetchType: STORE`, compress the files while they are written with `GZIP` or `ZSTD`; ION and JSON files get a `.gz` or `.zst` extension and must be decompressed by the consumer, " +
+            "while Parquet files keep their extension and get compressed pages"
+    )
+    @Builder.Default
+    @PluginProperty(group = "execution")
+    protected Property<Compression> outputCompression = Property.ofValue(Compression.NONE);
+
+    @Schema(
+        title = "Compression level",
+        description = "Level used with `outputCompression`, for ION and JSON files as well as Parquet pages: from 1 (fastest) to 9 (smallest) for `GZIP`, defaulting to 6, " +
+            "and from 1 to 19 for `ZSTD`, defaulting to 3"
+    )
+    @Min(1)
+    @Max(19)
+    @PluginProperty(group = "advanced")
+    protected Property<Integer> compressionLevel;
+
+    @Schema(
+        title = "Sample size",
+        description = "With `fetchType: FETCH`, return a uniform random sample of at most this many rows (in result order) instead of every row; " +
+            "the full result is still read once and `total` stays exact. With `FluxQuery`, rows are streamed so memory is bounded by the sample size; " +
+            "`InfluxQLQuery` receives the whole response before sampling, so its memory grows with the result"
+    )
+    @PluginProperty(group = "execution")
+    protected Property<Integer> sampleSize;
+
+    @Schema(
+        title = "Summary statistics",
+        description = "When set, rows are streamed into per-group accumulators (count, min, max, mean and t-digest quantiles) and only the statistics are returned in `summaries`; " +
+            "`fetchType` is ignored and nothing is stored. With `FluxQuery`, rows are streamed so memory stays constant per group whatever the number of rows; " +
+            "`InfluxQLQuery` receives the whole response first, so its memory grows with the result"
+    )
+    @PluginProperty(group = "execution")
+    protected Summary summary;
+
+    protected List<URI> storeResults(RunContext runContext, Iterator<Map<String, Object>> results) throws IOException, IllegalVariableEvaluationException {
+        Long rMaxRows = runContext.render(maxRowsPerFile).as(Long.class).orElse(null);
+        Long rMaxBytes = runContext.render(maxBytesPerFile).as(Long.class).orElse(null);
+
+        Format rFormat = runContext.render(format).as(Format.class).orElse(Format.ION);
+        Compression rCompression = runContext.render(outputCompression).as(Compression.class).orElse(Compression.NONE);
+        Integer rLevel = runContext.render(compressionLevel).as(Integer.class).orElse(null);
+
+        try (RollingStore store = new RollingStore(runContext, rMaxRows, rMaxBytes, rCompression, rLevel, rFormat)) {
+            while (results.hasNext()) {
+                store.write(results.next());
+            }
 
-        try (var output = new BufferedOutputStream(new FileOutputStream(tempFile), FileSerde.BUFFER_SIZE)) {
-            Flux<Map<String, Object>> recordFlux = Flux.fromIterable(results);
-            FileSerde.writeAll(output, recordFlux).block();
-            return runContext.storage().putFile(tempFile);
+            List<URI> uris = store.store();
+
+            this.deferMetric(Counter.of("store.bytes", store.storedBytes()));
+            // the uncompressed size of Parquet pages isn't known
+            if (rCompression != Compression.NONE && rFormat != Format.PARQUET && store.storedBytes() > 0) {
+                this.deferMetric(Counter.of("store.compression.ratio", (double) store.rawBytes() / store.storedBytes()));
+            }
+
+            return uris;
+        }
+    }
+
+    /**
+     * Consume the rows once according to {@link #summary} or {@link #fetchType}.
+     *
+     * @param runContext the run context
+     * @param rows the rows, streamed from the server when possible
+     * @return the task output
+     */
+    protected Output handleFetchType(RunContext runContext, Stream<Map<String, Object>> rows) throws Exception {
+        CountingIterator results = new CountingIterator(rows.iterator());
+
+        try {
+            return this.handleFetchType(runContext, results);
+        } catch (Exception e) {
+            if (cancellation.isCancelled()) {
+                runContext.logger().warn("Query was cancelled after {} records", results.count());
+                this.deferMetric(Counter.of("records", results.count(), "cancelled", "true"));
+            }
+            throw e;
         }
     }
 
-    protected Output handleFetchType(RunContext runContext, List<Map<String, Object>> allResults) throws Exception {
-        Output.OutputBuilder outputBuilder = Output.builder()
-            .total((long) allResults.size());
+    private Output handleFetchType(RunContext runContext, CountingIterator results) throws Exception {
+        Output.OutputBuilder outputBuilder = Output.builder();
+
+        if (summary != null) {
+            Summaries summaries = summary.summaries(runContext);
+            results.forEachRemaining(summaries::add);
+
+            List<Map<String, Object>> groups = summaries.results();
+            return outputBuilder
+                .summaries(groups)
+                .size(groups.size())
+                .total(results.count())
+                .build();
+        }
 
         FetchType type = runContext.render(fetchType).as(FetchType.class).orElseThrow();
 
         switch (type) {
             case FETCH:
+                Integer rSampleSize = runContext.render(sampleSize).as(Integer.class).orElse(null);
+                List<Map<String, Object>> allResults;
+                if (rSampleSize != null) {
+                    Reservoir<Map<String, Object>> reservoir = new Reservoir<>(rSampleSize);
+                    results.forEachRemaining(reservoir::add);
+                    allResults = reservoir.sample();
+                } else {
+                    allResults = new ArrayList<>();
+                    results.forEachRemaining(allResults::add);
+                }
                 outputBuilder
                     .rows(allResults)
                     .size(allResults.size());
                 break;
 
             case FETCH_ONE:
-                Map<String, Object> firstRow = allResults.isEmpty() ? null : allResults.getFirst();
+                Map<String, Object> firstRow = results.hasNext() ? results.next() : null;
+                results.forEachRemaining(row -> {});
                 outputBuilder
                     .row(firstRow)
                     .size(firstRow != null ? 1 : 0);
                 break;
 
             case STORE:
-                URI uri = storeResults(runContext, allResults);
+                List<URI> uris = storeResults(runContext, results);
                 outputBuilder
-                    .uri(uri)
-                    .size(allResults.size());
+                    .uri(uris.isEmpty() ? null : uris.getFirst())
+                    .uris(uris)
+                    .size((int) results.count());
                 break;
 
             case NONE:
-                outputBuilder.size(allResults.size());
+                results.forEachRemaining(row -> {});
+                outputBuilder.size((int) results.count());
                 break;
         }
 
-        return outputBuilder.build();
+        return outputBuilder
+            .total(results.count())
+            .build();
+    }
+
+    public enum Format {
+        ION,
+        JSON,
+        PARQUET
+    }
+
+    public enum Compression {
+        NONE,
+        GZIP,
+        ZSTD
+    }
+
+    private static class CountingIterator implements Iterator<Map<String, Object>> {
+        private final Iterator<Map<String, Object>> delegate;
+        private long count;
+
+        CountingIterator(Iterator<Map<String, Object>> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return delegate.hasNext();
+        }
+
+        @Override
+        public Map<String, Object> next() {
+            count++;
+            return delegate.next();
+        }
+
+        long count() {
+            return count;
+        }
     }
 
     @Builder
@@ -102,7 +266,7 @@ public abstract class AbstractQuery extends AbstractTask {
 
         @Schema(
             title = "Fetched rows",
-            description = "Only populated when `fetchType=FETCH`"
+            description = "Only populated when `fetchType=FETCH`; a random sample when `sampleSize` is set"
         )
         private List<Map<String, Object>> rows;
 
@@ -114,8 +278,20 @@ public abstract class AbstractQuery extends AbstractTask {
 
         @Schema(
             title = "URI of stored data",
-            description = "Only populated when `fetchType=STORE`"
+            description = "Only populated when `fetchType=STORE`; the first file when the output is split"
         )
         private URI uri;
+
+        @Schema(
+            title = "URIs of stored data files",
+            description = "Only populated when `fetchType=STORE`; one file per `maxRowsPerFile`/`maxBytesPerFile` chunk, in result order"
+        )
+        private List<URI> uris;
+
+        @Schema(
+            title = "Summary statistics per group",
+            description = "Only populated when `summary` is set; group columns followed by `count`, `min`, `max`, `mean` and the quantiles"
+        )
+        private List<Map<String, Object>> summaries;
     }
 }
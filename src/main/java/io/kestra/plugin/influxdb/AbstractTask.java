@@ -1,15 +1,22 @@
 package io.kestra.plugin.influxdb;
 
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
 import com.influxdb.client.InfluxDBClient;
 
 import io.kestra.core.exceptions.IllegalVariableEvaluationException;
 import io.kestra.core.models.annotations.PluginProperty;
+import io.kestra.core.models.executions.AbstractMetricEntry;
 import io.kestra.core.models.property.Property;
 import io.kestra.core.models.tasks.Task;
 import io.kestra.core.runners.RunContext;
+import io.kestra.plugin.influxdb.utils.Cancellation;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotNull;
+import lombok.AccessLevel;
+import lombok.Builder;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -45,14 +52,55 @@ public abstract class AbstractTask extends Task {
     @PluginProperty(group = "main")
     protected Property<String> org;
 
+    @Builder.Default
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    protected final transient Cancellation cancellation = new Cancellation();
+
+    @Builder.Default
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    protected final transient Queue<AbstractMetricEntry<?>> deferredMetrics = new ConcurrentLinkedQueue<>();
+
     /**
-     * Get a configured InfluxDB client
+     * Get a configured InfluxDB client, whose in-flight requests are cancelled when the task is killed
      *
      * @param runContext The current run context
      * @return A configured InfluxDB client
      * @throws IllegalVariableEvaluationException If variable rendering fails
      */
     protected InfluxDBClient client(RunContext runContext) throws IllegalVariableEvaluationException {
-        return connection.client(runContext);
+        return connection.client(runContext, cancellation);
+    }
+
+    /**
+     * Keep a metric computed on a worker thread, the run context metrics being emitted from the task thread only.
+     *
+     * @param metric The metric to emit with {@link #emitDeferredMetrics(RunContext)}
+     */
+    protected void deferMetric(AbstractMetricEntry<?> metric) {
+        deferredMetrics.add(metric);
+    }
+
+    /**
+     * Emit the metrics kept by {@link #deferMetric(AbstractMetricEntry)}, once the worker threads are done.
+     *
+     * @param runContext The current run context
+     */
+    protected void emitDeferredMetrics(RunContext runContext) {
+        AbstractMetricEntry<?> metric;
+        while ((metric = deferredMetrics.poll()) != null) {
+            runContext.metric(metric);
+        }
+    }
+
+    /**
+     * Cancel the in-flight InfluxDB requests and close the clients, so that the server stops working for an abandoned
+     * task and the worker threads are released.
+     */
+    public void kill() {
+        cancellation.cancel();
     }
 }
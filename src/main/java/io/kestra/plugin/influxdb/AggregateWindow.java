@@ -0,0 +1,53 @@
+package io.kestra.plugin.influxdb;
+
+import java.time.Duration;
+
+import io.kestra.core.exceptions.IllegalVariableEvaluationException;
+import io.kestra.core.models.annotations.PluginProperty;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.runners.RunContext;
+import io.kestra.plugin.influxdb.utils.FluxScript;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+@SuperBuilder
+@ToString
+@EqualsAndHashCode
+@Getter
+@NoArgsConstructor
+public class AggregateWindow {
+    @Schema(
+        title = "Window duration",
+        description = "Duration of each window (ISO-8601, e.g. `PT1M`)"
+    )
+    @NotNull
+    @PluginProperty(group = "main")
+    protected Property<Duration> every;
+
+    @Schema(
+        title = "Aggregate function",
+        description = "Function applied to each window, among the ones InfluxDB pushes down to storage (`MEAN`, `MIN`, `MAX`, `SUM`, `COUNT`, `FIRST`, `LAST`); defaults to `MEAN`"
+    )
+    @Builder.Default
+    @PluginProperty(group = "main")
+    protected Property<FluxScript.Function> fn = Property.ofValue(FluxScript.Function.MEAN);
+
+    @Schema(
+        title = "Create empty windows",
+        description = "Emit windows without points with a null value; defaults to `false`"
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    protected Property<Boolean> createEmpty = Property.ofValue(false);
+
+    protected String toFlux(RunContext runContext) throws IllegalVariableEvaluationException {
+        Duration rEvery = runContext.render(every).as(Duration.class).orElseThrow();
+        FluxScript.Function rFn = runContext.render(fn).as(FluxScript.Function.class).orElse(FluxScript.Function.MEAN);
+        boolean rCreateEmpty = runContext.render(createEmpty).as(Boolean.class).orElse(false);
+
+        return FluxScript.aggregateWindow(rEvery, rFn, rCreateEmpty);
+    }
+}
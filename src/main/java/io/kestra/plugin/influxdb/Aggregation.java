@@ -0,0 +1,54 @@
+package io.kestra.plugin.influxdb;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import io.kestra.core.exceptions.IllegalVariableEvaluationException;
+import io.kestra.core.models.annotations.PluginProperty;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.runners.RunContext;
+import io.kestra.plugin.influxdb.utils.WindowAggregator;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+@SuperBuilder
+@ToString
+@EqualsAndHashCode
+@Getter
+@NoArgsConstructor
+public class Aggregation {
+    @Schema(
+        title = "Window duration",
+        description = "Points are collapsed per series into windows of this duration (ISO-8601, e.g. `PT1M`), timestamped with the window start"
+    )
+    @NotNull
+    @PluginProperty(group = "main")
+    protected Property<Duration> window;
+
+    @Schema(
+        title = "Aggregate function per field",
+        description = "Map of field name to `MEAN`, `MIN`, `MAX`, `SUM`, `LAST` or `COUNT`; fields that aren't listed are dropped"
+    )
+    @NotNull
+    @PluginProperty(group = "main")
+    protected Property<Map<String, WindowAggregator.Function>> fields;
+
+    @Schema(
+        title = "Grouping tags",
+        description = "Tags identifying a series; defaults to the task `tags`. Tags that aren't listed are dropped."
+    )
+    @PluginProperty(group = "advanced")
+    protected Property<List<String>> groupBy;
+
+    protected WindowAggregator aggregator(RunContext runContext, String measurement, String timeField, List<String> tags) throws IllegalVariableEvaluationException {
+        Duration rWindow = runContext.render(window).as(Duration.class).orElseThrow();
+        Map<String, WindowAggregator.Function> rFields = runContext.render(fields).asMap(String.class, WindowAggregator.Function.class);
+        List<String> rGroupBy = groupBy != null ? runContext.render(groupBy).asList(String.class) : tags;
+
+        return new WindowAggregator(measurement, timeField, rGroupBy, rFields, rWindow);
+    }
+}
@@ -0,0 +1,369 @@
+package io.kestra.plugin.influxdb;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+
+import com.influxdb.client.InfluxDBClient;
+import com.influxdb.client.QueryApi;
+import com.influxdb.client.WriteApiBlocking;
+import com.influxdb.client.write.Point;
+
+import io.kestra.core.models.annotations.Example;
+import io.kestra.core.models.annotations.Metric;
+import io.kestra.core.models.annotations.Plugin;
+import io.kestra.core.models.annotations.PluginProperty;
+import io.kestra.core.models.executions.metrics.Counter;
+import io.kestra.core.models.executions.metrics.Timer;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.models.tasks.RunnableTask;
+import io.kestra.core.runners.RunContext;
+import io.kestra.plugin.influxdb.utils.FluxRecords;
+import io.kestra.plugin.influxdb.utils.QueryStream;
+import io.kestra.plugin.influxdb.utils.TimeUtils;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+@SuperBuilder
+@ToString
+@EqualsAndHashCode
+@Getter
+@NoArgsConstructor
+@Schema(
+    title = "Copy query results between InfluxDB buckets or instances",
+    description = "Streams the records of a Flux query on the source connection straight into batched line-protocol writes on the destination `connection`/`org`/`bucket`, without an intermediate file. " +
+        "Records are pulled with backpressure through a bounded buffer, so memory stays constant whatever the result size. " +
+        "When `partitionDuration` is set, the `start`–`stop` range is split into time partitions copied in parallel; the query can reference `{{ partition.start }}` and `{{ partition.stop }}`. " +
+        "Records must be un-pivoted (`_measurement`, `_field`, `_value`, `_time`); other non-underscore columns become tags."
+)
+@Plugin(
+    examples = {
+        @Example(
+            title = "Copy the last day of CPU data to another InfluxDB instance.",
+            full = true,
+            code = """
+                id: influxdb_copy
+                namespace: company.team
+
+                tasks:
+                  - id: copy
+                    type: io.kestra.plugin.influxdb.Copy
+                    sourceConnection:
+                      url: "{{ secret('INFLUXDB_SOURCE_URL') }}"
+                      token: "{{ secret('INFLUXDB_SOURCE_TOKEN') }}"
+                    sourceOrg: "source-org"
+                    query: |
+                      from(bucket: "telemetry")
+                        |> range(start: -1d)
+                        |> filter(fn: (r) => r._measurement == "cpu")
+                    connection:
+                      url: "{{ secret('INFLUXDB_URL') }}"
+                      token: "{{ secret('INFLUXDB_TOKEN') }}"
+                    org: "my-org"
+                    bucket: "telemetry-archive"
+                """
+        ),
+        @Example(
+            title = "Backfill a month of data between buckets with 4 partitions copied in parallel.",
+            full = true,
+            code = """
+                id: influxdb_backfill
+                namespace: company.team
+
+                tasks:
+                  - id: copy
+                    type: io.kestra.plugin.influxdb.Copy
+                    connection:
+                      url: "{{ secret('INFLUXDB_URL') }}"
+                      token: "{{ secret('INFLUXDB_TOKEN') }}"
+                    org: "my-org"
+                    bucket: "telemetry-backfill"
+                    start: "2024-01-01T00:00:00Z"
+                    stop: "2024-02-01T00:00:00Z"
+                    partitionDuration: P1D
+                    concurrency: 4
+                    query: |
+                      from(bucket: "telemetry")
+                        |> range(start: {{ partition.start }}, stop: {{ partition.stop }})
+                """
+        )
+    },
+    metrics = {
+        @Metric(
+            name = "records",
+            type = Counter.TYPE,
+            unit = "count",
+            description = "Number of records copied to the destination"
+        ),
+        @Metric(
+            name = "batches",
+            type = Counter.TYPE,
+            unit = "count",
+            description = "Number of write requests sent to the destination"
+        ),
+        @Metric(
+            name = "records.inflight.max",
+            type = Counter.TYPE,
+            unit = "count",
+            description = "Peak number of records read from the source and not yet written"
+        ),
+        @Metric(
+            name = "throughput",
+            type = Counter.TYPE,
+            unit = "records/s",
+            description = "Average copy throughput"
+        ),
+        @Metric(
+            name = "duration",
+            type = Timer.TYPE,
+            description = "Total copy duration"
+        )
+    }
+)
+public class Copy extends AbstractTask implements RunnableTask<Copy.Output> {
+    @Schema(
+        title = "Source connection",
+        description = "Connection the query runs on; defaults to the destination `connection`"
+    )
+    @PluginProperty(group = "connection")
+    private InfluxDBConnection sourceConnection;
+
+    @Schema(
+        title = "Source organization",
+        description = "Organization the query runs in; defaults to `org`"
+    )
+    @PluginProperty(group = "connection")
+    private Property<String> sourceOrg;
+
+    @Schema(
+        title = "Flux query",
+        description = "Flux query selecting the records to copy; rendered once per partition with `partition.start` and `partition.stop` variables"
+    )
+    @NotNull
+    @PluginProperty(group = "main")
+    private Property<String> query;
+
+    @Schema(
+        title = "Destination measurement",
+        description = "Overrides the `_measurement` of every copied record"
+    )
+    @PluginProperty(group = "advanced")
+    private Property<String> measurement;
+
+    @Schema(
+        title = "Chunk size per write",
+        description = "Number of points per batch when writing to the destination; defaults to 1000"
+    )
+    @Builder.Default
+    @PluginProperty(group = "execution")
+    private Property<Integer> chunk = Property.ofValue(1000);
+
+    @Schema(
+        title = "Read buffer size",
+        description = "Maximum number of records buffered per partition between the source stream and the writer; the source is paused when full. Defaults to 10000."
+    )
+    @Builder.Default
+    @PluginProperty(group = "execution")
+    private Property<Integer> bufferSize = Property.ofValue(10_000);
+
+    @Schema(
+        title = "Range start",
+        description = "Start of the copied time range (RFC3339 or epoch), exposed to the query as `partition.start`; required with `partitionDuration`"
+    )
+    @PluginProperty(group = "advanced")
+    private Property<String> start;
+
+    @Schema(
+        title = "Range stop",
+        description = "End of the copied time range (RFC3339 or epoch), exposed to the query as `partition.stop`; required with `partitionDuration`"
+    )
+    @PluginProperty(group = "advanced")
+    private Property<String> stop;
+
+    @Schema(
+        title = "Partition duration",
+        description = "Splits `start`–`stop` into consecutive partitions of this duration, each copied with its own query"
+    )
+    @PluginProperty(group = "advanced")
+    private Property<Duration> partitionDuration;
+
+    @Schema(
+        title = "Concurrency",
+        description = "Number of partitions copied in parallel; defaults to 1"
+    )
+    @Builder.Default
+    @PluginProperty(group = "execution")
+    private Property<Integer> concurrency = Property.ofValue(1);
+
+    @Override
+    public Output run(RunContext runContext) throws Exception {
+        Logger logger = runContext.logger();
+
+        String rOrg = runContext.render(org).as(String.class).orElseThrow();
+        String rBucket = runContext.render(bucket).as(String.class).orElseThrow();
+        String rSourceOrg = runContext.render(sourceOrg).as(String.class).orElse(rOrg);
+        String rMeasurement = runContext.render(measurement).as(String.class).orElse(null);
+        int rChunk = runContext.render(chunk).as(Integer.class).orElse(1000);
+        int rBufferSize = runContext.render(bufferSize).as(Integer.class).orElse(10_000);
+        int rConcurrency = Math.max(1, runContext.render(concurrency).as(Integer.class).orElse(1));
+
+        List<Map<String, Object>> partitions = this.partitions(runContext);
+        InfluxDBConnection source = this.sourceConnection != null ? this.sourceConnection : this.connection;
+
+        AtomicLong records = new AtomicLong();
+        AtomicInteger batches = new AtomicInteger();
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peakInFlight = new AtomicInteger();
+        Instant started = Instant.now();
+
+        try (
+            InfluxDBClient sourceClient = source.client(runContext, cancellation);
+            InfluxDBClient destinationClient = this.client(runContext)
+        ) {
+            QueryApi queryApi = sourceClient.getQueryApi();
+            WriteApiBlocking writeApi = destinationClient.getWriteApiBlocking();
+
+            ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(rConcurrency, partitions.size())));
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (Map<String, Object> partition : partitions) {
+                    String rQuery = runContext.render(query).as(String.class, Map.of("partition", partition)).orElseThrow();
+
+                    futures.add(executor.submit(() ->
+                    {
+                        logger.debug("Copying partition {}", partition);
+
+                        try (QueryStream stream = QueryStream.open(queryApi, QueryStream.query(rQuery), rSourceOrg, rBufferSize)) {
+                            List<Point> batch = new ArrayList<>(rChunk);
+                            int level = 0;
+
+                            try {
+                                while (stream.hasNext()) {
+                                    cancellation.throwIfCancelled();
+                                    batch.add(FluxRecords.toPoint(stream.next(), rMeasurement));
+
+                                    if (batch.size() >= rChunk) {
+                                        int current = stream.buffered() + batch.size();
+                                        peakInFlight.accumulateAndGet(inFlight.addAndGet(current - level), Math::max);
+                                        level = current;
+
+                                        writeApi.writePoints(rBucket, rOrg, batch);
+                                        records.addAndGet(batch.size());
+                                        batches.incrementAndGet();
+                                        batch = new ArrayList<>(rChunk);
+                                    }
+                                }
+
+                                if (!batch.isEmpty()) {
+                                    writeApi.writePoints(rBucket, rOrg, batch);
+                                    records.addAndGet(batch.size());
+                                    batches.incrementAndGet();
+                                }
+                            } finally {
+                                inFlight.addAndGet(-level);
+                            }
+                        }
+
+                        return null;
+                    }));
+                }
+
+                for (Future<?> future : futures) {
+                    try {
+                        future.get();
+                    } catch (ExecutionException e) {
+                        if (e.getCause() instanceof Exception cause) {
+                            throw cause;
+                        }
+                        throw e;
+                    }
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        Duration duration = Duration.between(started, Instant.now());
+        double throughput = records.get() / Math.max(duration.toMillis() / 1000.0, 0.001);
+
+        runContext.metric(Counter.of("records", records.get()));
+        runContext.metric(Counter.of("batches", batches.get()));
+        runContext.metric(Counter.of("records.inflight.max", peakInFlight.get()));
+        runContext.metric(Counter.of("throughput", throughput));
+        runContext.metric(Timer.of("duration", duration));
+
+        logger.info(
+            "Copied {} records in {} batches over {} partitions ({} records/s)",
+            records.get(),
+            batches.get(),
+            partitions.size(),
+            Math.round(throughput)
+        );
+
+        return Output.builder()
+            .recordCount(records.get())
+            .batchCount(batches.get())
+            .partitionCount(partitions.size())
+            .build();
+    }
+
+    private List<Map<String, Object>> partitions(RunContext runContext) throws Exception {
+        Instant rStart = runContext.render(start).as(String.class).map(TimeUtils::toInstant).orElse(null);
+        Instant rStop = runContext.render(stop).as(String.class).map(TimeUtils::toInstant).orElse(null);
+        Duration rPartitionDuration = runContext.render(partitionDuration).as(Duration.class).orElse(null);
+
+        if (rPartitionDuration == null) {
+            Map<String, Object> partition = new HashMap<>();
+            if (rStart != null) {
+                partition.put("start", rStart.toString());
+            }
+            if (rStop != null) {
+                partition.put("stop", rStop.toString());
+            }
+            return List.of(partition);
+        }
+
+        if (rStart == null || rStop == null) {
+            throw new IllegalArgumentException("`start` and `stop` are required when `partitionDuration` is set");
+        }
+
+        if (rPartitionDuration.isZero() || rPartitionDuration.isNegative()) {
+            throw new IllegalArgumentException("`partitionDuration` must be positive, got " + rPartitionDuration);
+        }
+
+        List<Map<String, Object>> partitions = new ArrayList<>();
+        for (Instant current = rStart; current.isBefore(rStop); current = current.plus(rPartitionDuration)) {
+            Instant end = current.plus(rPartitionDuration).isAfter(rStop) ? rStop : current.plus(rPartitionDuration);
+            partitions.add(Map.of("start", current.toString(), "stop", end.toString()));
+        }
+
+        return partitions;
+    }
+
+    @Builder
+    @Getter
+    public static class Output implements io.kestra.core.models.tasks.Output {
+        @Schema(title = "Number of records copied to the destination")
+        private final Long recordCount;
+
+        @Schema(title = "Number of write requests sent to the destination")
+        private final Integer batchCount;
+
+        @Schema(title = "Number of time partitions copied")
+        private final Integer partitionCount;
+    }
+}
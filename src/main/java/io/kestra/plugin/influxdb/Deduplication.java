@@ -0,0 +1,53 @@
+package io.kestra.plugin.influxdb;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import io.kestra.core.models.annotations.PluginProperty;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.runners.RunContext;
+import io.kestra.plugin.influxdb.utils.Fingerprints;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+@SuperBuilder
+@ToString
+@EqualsAndHashCode
+@Getter
+@NoArgsConstructor
+public class Deduplication {
+    @Schema(
+        title = "Key columns",
+        description = "Columns identifying a row; defaults to every column except the Flux system columns (`result`, `table`, `_start`, `_stop`)"
+    )
+    @PluginProperty(group = "main")
+    protected Property<List<String>> keyColumns;
+
+    @Schema(
+        title = "Retention",
+        description = "How long a row is remembered after it was first seen; should cover the overlap of the queried ranges. Defaults to 1 day."
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    protected Property<Duration> ttl = Property.ofValue(Duration.ofDays(1));
+
+    @Schema(
+        title = "Maximum remembered rows",
+        description = "The oldest fingerprints are forgotten beyond this number; defaults to 10000"
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    protected Property<Integer> maxSize = Property.ofValue(10_000);
+
+    protected Fingerprints fingerprints(RunContext runContext, Map<String, ?> state, Instant now) throws Exception {
+        List<String> rKeyColumns = keyColumns != null ? runContext.render(keyColumns).asList(String.class) : null;
+        Duration rTtl = runContext.render(ttl).as(Duration.class).orElse(Duration.ofDays(1));
+        int rMaxSize = runContext.render(maxSize).as(Integer.class).orElse(10_000);
+
+        return new Fingerprints(state, rKeyColumns == null || rKeyColumns.isEmpty() ? null : rKeyColumns, rTtl, rMaxSize, now);
+    }
+}
@@ -0,0 +1,213 @@
+package io.kestra.plugin.influxdb;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+
+import com.influxdb.client.InfluxDBClient;
+import com.influxdb.client.QueryApi;
+
+import io.kestra.core.models.annotations.Example;
+import io.kestra.core.models.annotations.Metric;
+import io.kestra.core.models.annotations.Plugin;
+import io.kestra.core.models.annotations.PluginProperty;
+import io.kestra.core.models.executions.metrics.Counter;
+import io.kestra.core.models.executions.metrics.Timer;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.models.tasks.RunnableTask;
+import io.kestra.core.models.tasks.common.FetchType;
+import io.kestra.core.runners.RunContext;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+@SuperBuilder
+@ToString
+@EqualsAndHashCode
+@Getter
+@NoArgsConstructor
+@Schema(
+    title = "Run several named Flux queries concurrently",
+    description = "Runs every query of `queries` over a single InfluxDB client, with at most `concurrency` queries in flight, and returns one result per query name. " +
+        "End-to-end latency is close to the slowest query instead of the sum of all queries; `fetchType` applies to every query."
+)
+@Plugin(
+    examples = {
+        @Example(
+            title = "Compute several KPIs in one task and use them downstream.",
+            full = true,
+            code = """
+                id: influxdb_kpis
+                namespace: company.team
+
+                tasks:
+                  - id: kpis
+                    type: io.kestra.plugin.influxdb.FluxQueries
+                    connection:
+                      url: "{{ secret('INFLUXDB_URL') }}"
+                      token: "{{ secret('INFLUXDB_TOKEN') }}"
+                    org: "my-org"
+                    fetchType: FETCH_ONE
+                    queries:
+                      cpu_mean: |
+                        from(bucket: "my-bucket")
+                          |> range(start: -1h)
+                          |> filter(fn: (r) => r._measurement == "cpu" and r._field == "usage")
+                          |> group()
+                          |> mean()
+                      error_count: |
+                        from(bucket: "my-bucket")
+                          |> range(start: -1h)
+                          |> filter(fn: (r) => r._measurement == "http" and r._field == "errors")
+                          |> group()
+                          |> sum()
+
+                  - id: log
+                    type: io.kestra.plugin.core.log.Log
+                    message: "CPU {{ outputs.kpis.results.cpu_mean.row._value }}, errors {{ outputs.kpis.results.error_count.row._value }}"
+                """
+        )
+    },
+    metrics = {
+        @Metric(
+            name = "records",
+            type = Counter.TYPE,
+            unit = "count",
+            description = "The number of records returned by each query, tagged with the query name"
+        ),
+        @Metric(
+            name = "duration",
+            type = Timer.TYPE,
+            description = "The duration of each query, tagged with the query name"
+        )
+    }
+)
+public class FluxQueries extends AbstractTask implements RunnableTask<FluxQueries.Output> {
+    @Schema(
+        title = "Named Flux queries",
+        description = "Map of query name to Flux statement; results are returned under the same names"
+    )
+    @NotNull
+    @PluginProperty(group = "main")
+    private Property<Map<String, String>> queries;
+
+    @Schema(
+        title = "Query parameters",
+        description = "Flux `params` sent with every query, see `FluxQuery`"
+    )
+    @PluginProperty(group = "advanced")
+    private Property<Map<String, Object>> parameters;
+
+    @Schema(
+        title = "Fetch behavior",
+        description = "Applied to every query, see `FluxQuery`; default is `FETCH`"
+    )
+    @Builder.Default
+    @PluginProperty(group = "execution")
+    private Property<FetchType> fetchType = Property.ofValue(FetchType.FETCH);
+
+    @Schema(
+        title = "Concurrency",
+        description = "Maximum number of queries in flight; defaults to 8"
+    )
+    @Builder.Default
+    @PluginProperty(group = "execution")
+    private Property<Integer> concurrency = Property.ofValue(8);
+
+    @Override
+    public Output run(RunContext runContext) throws Exception {
+        Logger logger = runContext.logger();
+
+        Map<String, String> rQueries = runContext.render(queries).asMap(String.class, String.class);
+        String rOrg = runContext.render(org).as(String.class).orElseThrow();
+        int rConcurrency = Math.max(1, runContext.render(concurrency).as(Integer.class).orElse(8));
+
+        if (bucket != null) {
+            logger.info("Bucket is ignored for FluxQueries as it's embedded in the query strings.");
+        }
+
+        Map<String, AbstractQuery.Output> results = new LinkedHashMap<>();
+        if (rQueries.isEmpty()) {
+            return Output.builder().results(results).build();
+        }
+
+        try (InfluxDBClient client = this.client(runContext)) {
+            QueryApi queryApi = client.getQueryApi();
+
+            ExecutorService executor = Executors.newFixedThreadPool(Math.min(rConcurrency, rQueries.size()));
+            try {
+                Map<String, Future<Timed>> futures = new LinkedHashMap<>();
+                rQueries.forEach((name, rQuery) ->
+                {
+                    FluxQuery fluxQuery = FluxQuery.builder()
+                        .id(this.id)
+                        .type(FluxQuery.class.getName())
+                        .connection(this.connection)
+                        .org(this.org)
+                        .query(Property.ofValue(rQuery))
+                        .parameters(this.parameters)
+                        .fetchType(this.fetchType)
+                        .cancellation(this.cancellation)
+                        .deferredMetrics(this.deferredMetrics)
+                        .build();
+
+                    futures.put(name, executor.submit(() ->
+                    {
+                        logger.debug("Starting query '{}': {}", name, rQuery);
+                        Instant started = Instant.now();
+
+                        AbstractQuery.Output output = fluxQuery.fetch(runContext, queryApi, rQuery, rOrg);
+                        return new Timed(output, Duration.between(started, Instant.now()));
+                    }));
+                });
+
+                for (Map.Entry<String, Future<Timed>> future : futures.entrySet()) {
+                    try {
+                        Timed timed = future.getValue().get();
+                        results.put(future.getKey(), timed.output());
+
+                        runContext.metric(Counter.of("records", timed.output().getTotal(), "query", future.getKey()));
+                        runContext.metric(Timer.of("duration", timed.duration(), "query", future.getKey()));
+                    } catch (ExecutionException e) {
+                        if (e.getCause() instanceof Exception cause) {
+                            throw new IllegalStateException("Query '" + future.getKey() + "' failed: " + cause.getMessage(), cause);
+                        }
+                        throw e;
+                    }
+                }
+            } finally {
+                executor.shutdownNow();
+                this.emitDeferredMetrics(runContext);
+            }
+        }
+
+        return Output.builder()
+            .results(results)
+            .build();
+    }
+
+    /**
+     * Result of a query with its duration, measured on the worker thread and emitted as a metric by the task thread.
+     */
+    private record Timed(AbstractQuery.Output output, Duration duration) {
+    }
+
+    @Builder
+    @Getter
+    public static class Output implements io.kestra.core.models.tasks.Output {
+        @Schema(
+            title = "Result of each query",
+            description = "Keyed by query name, with the same fields as the `FluxQuery` output"
+        )
+        private final Map<String, AbstractQuery.Output> results;
+    }
+}
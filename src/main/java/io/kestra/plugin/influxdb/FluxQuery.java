@@ -1,23 +1,22 @@
 package io.kestra.plugin.influxdb;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 import org.slf4j.Logger;
 
 import com.influxdb.client.InfluxDBClient;
 import com.influxdb.client.QueryApi;
-import com.influxdb.query.FluxRecord;
-import com.influxdb.query.FluxTable;
 
 import io.kestra.core.models.annotations.Example;
 import io.kestra.core.models.annotations.Metric;
 import io.kestra.core.models.annotations.Plugin;
+import io.kestra.core.models.annotations.PluginProperty;
 import io.kestra.core.models.executions.metrics.Counter;
+import io.kestra.core.models.property.Property;
 import io.kestra.core.models.tasks.RunnableTask;
 import io.kestra.core.runners.RunContext;
+import io.kestra.plugin.influxdb.utils.FluxRecords;
+import io.kestra.plugin.influxdb.utils.QueryStream;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.EqualsAndHashCode;
@@ -104,6 +103,59 @@ import lombok.experimental.SuperBuilder;
                         |> yield()
                     fetchType: FETCH_ONE
                 """
+        ),
+        @Example(
+            title = "Query a list of hosts passed as Flux parameters instead of templating them into the query.",
+            full = true,
+            code = """
+                id: influxdb_flux_query_params
+                namespace: company.team
+
+                tasks:
+                  - id: query_influxdb
+                    type: io.kestra.plugin.influxdb.FluxQuery
+                    connection:
+                      url: "{{ secret('INFLUXDB_URL') }}"
+                      token: "{{ secret('INFLUXDB_TOKEN') }}"
+                    org: "my-org"
+                    parameters:
+                      measurement: cpu
+                      hosts:
+                        - server-01
+                        - server-02
+                    query: |
+                      from(bucket: "my-bucket")
+                        |> range(start: -1h)
+                        |> filter(fn: (r) => r._measurement == params.measurement and contains(value: r.host, set: params.hosts))
+                    fetchType: FETCH
+                """
+        ),
+        @Example(
+            title = "Compute count, mean and p50/p95/p99 latency per host over a large range without fetching the rows.",
+            full = true,
+            code = """
+                id: influxdb_flux_query_summary
+                namespace: company.team
+
+                tasks:
+                  - id: latency_summary
+                    type: io.kestra.plugin.influxdb.FluxQuery
+                    connection:
+                      url: "{{ secret('INFLUXDB_URL') }}"
+                      token: "{{ secret('INFLUXDB_TOKEN') }}"
+                    org: "my-org"
+                    query: |
+                      from(bucket: "my-bucket")
+                        |> range(start: -30d)
+                        |> filter(fn: (r) => r._measurement == "http" and r._field == "latency")
+                    summary:
+                      groupBy:
+                        - host
+                      quantiles:
+                        - 0.5
+                        - 0.95
+                        - 0.99
+                """
         )
     },
     metrics = {
@@ -112,17 +164,38 @@ import lombok.experimental.SuperBuilder;
             type = Counter.TYPE,
             unit = "count",
             description = "The number of records returned by the query"
+        ),
+        @Metric(
+            name = "store.bytes",
+            type = Counter.TYPE,
+            unit = "bytes",
+            description = "The size of the stored files, after compression, when `fetchType` is `STORE`"
+        ),
+        @Metric(
+            name = "store.compression.ratio",
+            type = Counter.TYPE,
+            description = "Uncompressed over compressed size of the stored files when `outputCompression` is set and `format` isn't `PARQUET`"
         )
     }
 )
 public class FluxQuery extends AbstractQuery implements RunnableTask<AbstractQuery.Output> {
+    private static final int BUFFER_SIZE = 10_000;
+
+    @Schema(
+        title = "Query parameters",
+        description = "Values sent alongside the query as Flux `params` and referenced as `params.name` in the query, " +
+            "so the query text stays constant and large values don't have to be templated into it; requires a server supporting parameterized queries (InfluxDB Cloud)"
+    )
+    @PluginProperty(group = "advanced")
+    protected Property<Map<String, Object>> parameters;
+
     @Override
     public Output run(RunContext runContext) throws Exception {
         Logger logger = runContext.logger();
         String renderedQuery = runContext.render(query).as(String.class).orElseThrow();
         String renderedOrg = runContext.render(org).as(String.class).orElseThrow();
 
-        try (InfluxDBClient client = this.connection.client(runContext)) {
+        try (InfluxDBClient client = this.client(runContext)) {
             QueryApi queryApi = client.getQueryApi();
             logger.debug("Starting query: {}", query);
 
@@ -130,27 +203,24 @@ public class FluxQuery extends AbstractQuery implements RunnableTask<AbstractQue
                 logger.info("Bucket is ignored for FluxQuery as it's embedded in the query string.");
             }
 
-            List<FluxTable> tables = queryApi.query(renderedQuery, renderedOrg);
-            List<Map<String, Object>> results = new ArrayList<>();
-
-            for (FluxTable table : tables) {
-                List<FluxRecord> records = table.getRecords();
-
-                for (FluxRecord record : records) {
-                    Map<String, Object> row = new HashMap<>();
-                    record.getValues().forEach((key, value) ->
-                    {
-                        if (value != null) {
-                            row.put(key, value);
-                        }
-                    });
-                    results.add(row);
-                }
-            }
+            Output output = fetch(runContext, queryApi, renderedQuery, renderedOrg);
+            runContext.metric(Counter.of("records", output.getTotal()));
+
+            return output;
+        } finally {
+            this.emitDeferredMetrics(runContext);
+        }
+    }
 
-            runContext.metric(Counter.of("records", results.size()));
+    /**
+     * Stream a rendered query and handle its rows according to this task's fetch settings. May run on a worker thread:
+     * the metrics are deferred until {@link #emitDeferredMetrics(RunContext)} is called.
+     */
+    Output fetch(RunContext runContext, QueryApi queryApi, String renderedQuery, String renderedOrg) throws Exception {
+        Map<String, Object> rParameters = parameters != null ? runContext.render(parameters).asMap(String.class, Object.class) : null;
 
-            return handleFetchType(runContext, results);
+        try (QueryStream stream = QueryStream.open(queryApi, QueryStream.query(renderedQuery, rParameters), renderedOrg, BUFFER_SIZE)) {
+            return handleFetchType(runContext, stream.stream().map(FluxRecords::toRow));
         }
     }
 }
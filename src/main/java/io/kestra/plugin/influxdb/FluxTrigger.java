@@ -1,10 +1,17 @@
 package io.kestra.plugin.influxdb;
 
 import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.regex.Pattern;
 
 import org.slf4j.Logger;
 
+import com.influxdb.client.QueryApi;
+
 import io.kestra.core.models.annotations.Example;
 import io.kestra.core.models.annotations.Plugin;
 import io.kestra.core.models.conditions.ConditionContext;
@@ -13,6 +20,9 @@ import io.kestra.core.models.property.Property;
 import io.kestra.core.models.tasks.common.FetchType;
 import io.kestra.core.models.triggers.*;
 import io.kestra.core.runners.RunContext;
+import io.kestra.plugin.influxdb.utils.ClientCache;
+import io.kestra.plugin.influxdb.utils.Fingerprints;
+import io.kestra.plugin.influxdb.utils.TriggerState;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.*;
@@ -25,7 +35,8 @@ import lombok.experimental.SuperBuilder;
 @NoArgsConstructor
 @Schema(
     title = "Trigger flow when Flux query returns rows",
-    description = "Polls a Flux query at a fixed interval (default 60 seconds) and starts a flow when at least one row is returned; `fetchType` mirrors FluxQuery output handling."
+    description = "Polls a Flux query at a fixed interval (default 60 seconds) and starts a flow when at least one row is returned; `fetchType` mirrors FluxQuery output handling. " +
+        "Each poll first probes the query with `|> limit(n: 1)` and only runs it in full when the probe returns a row (see `probe`)."
 )
 @Plugin(
     examples = {
@@ -62,6 +73,11 @@ import lombok.experimental.SuperBuilder;
     }
 )
 public class FluxTrigger extends AbstractTrigger implements PollingTriggerInterface, TriggerOutput<FluxQuery.Output> {
+    private static final String ADAPTIVE_STATE = "adaptive";
+    private static final String DEDUPLICATION_STATE = "fingerprints";
+    private static final Pattern TRAILING_YIELD = Pattern.compile("\\s*\\|>\\s*yield\\s*\\([^)]*\\)\\s*$");
+    private static final Pattern YIELD = Pattern.compile("\\|>\\s*yield\\s*\\(");
+
     @Builder.Default
     private final Duration interval = Duration.ofSeconds(60);
 
@@ -77,25 +93,167 @@ public class FluxTrigger extends AbstractTrigger implements PollingTriggerInterf
     @Schema(title = "Flux query to execute on each poll")
     private Property<String> query;
 
+    @Schema(title = "Flux `params` sent with the query, referenced as `params.name`")
+    private Property<Map<String, Object>> parameters;
+
     @Schema(title = "How to fetch the query result")
     @Builder.Default
     private Property<FetchType> fetchType = Property.ofValue(FetchType.NONE);
 
+    @Schema(
+        title = "Probe before fetching",
+        description = "Run the query with `|> limit(n: 1)` appended (after removing a trailing `yield()`) and only run the full query when it returns a row; " +
+            "defaults to `true`. Ignored for queries with several `yield()`, whose probe would only cover the last result; set it to `false` for queries whose probe is as expensive as the query itself"
+    )
+    @Builder.Default
+    private Property<Boolean> probe = Property.ofValue(true);
+
+    @Schema(
+        title = "Minimum adaptive interval",
+        description = "Interval used after a poll that found rows when `maxInterval` is set; defaults to `interval`"
+    )
+    private Property<Duration> minInterval;
+
+    @Schema(
+        title = "Maximum adaptive interval",
+        description = "Enables the adaptive interval: after each empty poll the interval doubles from `minInterval` up to this value, and it snaps back to `minInterval` as soon as rows are found. " +
+            "The interval is never shorter than the duration of the last poll, so slow queries don't overlap. The state is kept in the namespace KV store."
+    )
+    private Property<Duration> maxInterval;
+
+    @Schema(
+        title = "Deduplication",
+        description = "Only start an execution for rows that weren't returned by a previous poll, recognized by a fingerprint of their key columns kept in the namespace KV store; " +
+            "the execution only receives the new rows. Requires `fetchType: FETCH`."
+    )
+    private Deduplication deduplication;
+
+    @Override
+    public ZonedDateTime nextEvaluationDate(ConditionContext conditionContext, Optional<? extends TriggerContext> last) throws Exception {
+        if (this.maxInterval == null || conditionContext.getRunContext() == null) {
+            return PollingTriggerInterface.super.nextEvaluationDate(conditionContext, last);
+        }
+
+        Duration next = conditionContext.getRunContext().render(this.minInterval).as(Duration.class).orElse(this.interval);
+        try {
+            next = TriggerState.of(conditionContext, this).get(ADAPTIVE_STATE)
+                .map(state -> Duration.parse((String) state.get("interval")))
+                .orElse(next);
+        } catch (Exception e) {
+            conditionContext.getRunContext().logger().warn("Unable to read the adaptive interval, using the minimum interval", e);
+        }
+
+        return ZonedDateTime.now().plus(next);
+    }
+
     @Override
     public Optional<Execution> evaluate(ConditionContext conditionContext, TriggerContext context) throws Exception {
+        if (this.maxInterval == null) {
+            return this.poll(conditionContext, context);
+        }
+
+        Instant started = Instant.now();
+        Optional<Execution> execution = Optional.empty();
+
+        try {
+            execution = this.poll(conditionContext, context);
+            return execution;
+        } finally {
+            this.adapt(conditionContext, execution.isPresent(), Duration.between(started, Instant.now()));
+        }
+    }
+
+    private void adapt(ConditionContext conditionContext, boolean found, Duration took) {
+        RunContext runContext = conditionContext.getRunContext();
+
+        try {
+            TriggerState state = TriggerState.of(conditionContext, this);
+            Duration rMinInterval = runContext.render(this.minInterval).as(Duration.class).orElse(this.interval);
+            Duration rMaxInterval = runContext.render(this.maxInterval).as(Duration.class).orElseThrow();
+
+            int emptyPolls = found ? 0 : state.get(ADAPTIVE_STATE)
+                .map(previous -> ((Number) previous.getOrDefault("emptyPolls", 0)).intValue() + 1)
+                .orElse(1);
+
+            Duration next = adaptiveInterval(rMinInterval, rMaxInterval, emptyPolls, took);
+            runContext.logger().debug("Next poll in {} after {} empty poll(s), last poll took {}", next, emptyPolls, took);
+
+            state.put(ADAPTIVE_STATE, Map.of("emptyPolls", emptyPolls, "interval", next.toString()), rMaxInterval.multipliedBy(2));
+        } catch (Exception e) {
+            runContext.logger().warn("Unable to update the adaptive interval, the next poll uses the previous one", e);
+        }
+    }
+
+    static Duration adaptiveInterval(Duration minInterval, Duration maxInterval, int emptyPolls, Duration lastPoll) {
+        Duration next = minInterval;
+        for (int i = 0; i < emptyPolls && next.compareTo(maxInterval) < 0; i++) {
+            next = next.multipliedBy(2);
+        }
+
+        if (next.compareTo(maxInterval) > 0) {
+            next = maxInterval;
+        }
+
+        return lastPoll.compareTo(next) > 0 ? lastPoll : next;
+    }
+
+    private Optional<Execution> poll(ConditionContext conditionContext, TriggerContext context) throws Exception {
         RunContext runContext = conditionContext.getRunContext();
         Logger logger = runContext.logger();
 
+        String rQuery = runContext.render(this.query).as(String.class).orElseThrow();
+        String rOrg = runContext.render(this.org).as(String.class).orElseThrow();
+        boolean rProbe = runContext.render(this.probe).as(Boolean.class).orElse(true) && YIELD.matcher(rQuery).results().count() <= 1;
+
         FluxQuery fluxQuery = FluxQuery.builder()
             .id(this.id)
             .type(FluxQuery.class.getName())
             .connection(this.connection)
             .org(this.org)
             .query(this.query)
+            .parameters(this.parameters)
             .fetchType(this.fetchType)
             .build();
 
-        FluxQuery.Output output = fluxQuery.run(runContext);
+        FluxQuery.Output output;
+        // the client is kept warm between polls: only the lease is released here
+        try (ClientCache.Lease lease = this.connection.sharedClient(runContext)) {
+            QueryApi queryApi = lease.client().getQueryApi();
+
+            try {
+                if (rProbe) {
+                    FluxQuery probing = FluxQuery.builder()
+                        .id(this.id)
+                        .type(FluxQuery.class.getName())
+                        .connection(this.connection)
+                        .org(this.org)
+                        .query(this.query)
+                        .parameters(this.parameters)
+                        .fetchType(Property.ofValue(FetchType.NONE))
+                        .build();
+
+                    FluxQuery.Output probed = probing.fetch(runContext, queryApi, probeQuery(rQuery), rOrg);
+                    if (probed.getTotal() == 0) {
+                        logger.debug("Probe query returned no rows");
+                        return Optional.empty();
+                    }
+                }
+
+                output = fluxQuery.fetch(runContext, queryApi, rQuery, rOrg);
+            } catch (Exception e) {
+                if (ClientCache.isTransportFailure(e)) {
+                    lease.invalidate();
+                }
+                throw e;
+            } finally {
+                fluxQuery.emitDeferredMetrics(runContext);
+            }
+        }
+
+        if (this.deduplication != null) {
+            output = this.deduplicate(conditionContext, output);
+        }
+
         logger.debug("Found '{}' rows", output.getSize());
 
         if (Optional.ofNullable(output.getSize()).orElse(0) == 0) {
@@ -106,4 +264,32 @@ public class FluxTrigger extends AbstractTrigger implements PollingTriggerInterf
             TriggerService.generateExecution(this, conditionContext, context, output)
         );
     }
+
+    private FluxQuery.Output deduplicate(ConditionContext conditionContext, FluxQuery.Output output) throws Exception {
+        if (output.getRows() == null) {
+            throw new IllegalArgumentException("`deduplication` requires `fetchType: FETCH`");
+        }
+
+        RunContext runContext = conditionContext.getRunContext();
+        TriggerState state = TriggerState.of(conditionContext, this);
+        Instant now = Instant.now();
+
+        Fingerprints fingerprints = this.deduplication.fingerprints(runContext, state.get(DEDUPLICATION_STATE).orElse(Map.of()), now);
+        List<Map<String, Object>> rows = output.getRows().stream()
+            .filter(row -> fingerprints.add(row, now))
+            .toList();
+
+        state.put(DEDUPLICATION_STATE, fingerprints.state(), fingerprints.ttl());
+        runContext.logger().debug("{} of {} rows were already seen", output.getRows().size() - rows.size(), output.getRows().size());
+
+        return FluxQuery.Output.builder()
+            .rows(rows)
+            .size(rows.size())
+            .total(output.getTotal())
+            .build();
+    }
+
+    static String probeQuery(String query) {
+        return TRAILING_YIELD.matcher(query).replaceFirst("").stripTrailing() + "\n  |> limit(n: 1)";
+    }
 }
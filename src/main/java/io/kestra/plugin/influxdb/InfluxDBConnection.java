@@ -1,7 +1,14 @@
 package io.kestra.plugin.influxdb;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import com.influxdb.client.InfluxDBClient;
 import com.influxdb.client.InfluxDBClientFactory;
@@ -11,12 +18,17 @@ import io.kestra.core.exceptions.IllegalVariableEvaluationException;
 import io.kestra.core.models.annotations.PluginProperty;
 import io.kestra.core.models.property.Property;
 import io.kestra.core.runners.RunContext;
+import io.kestra.plugin.influxdb.utils.Cancellation;
+import io.kestra.plugin.influxdb.utils.ClientCache;
+import io.kestra.plugin.influxdb.utils.Endpoints;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient;
 
 @SuperBuilder
@@ -56,22 +68,182 @@ public class InfluxDBConnection {
     @PluginProperty(group = "execution")
     protected Property<Duration> readTimeout = Property.ofValue(Duration.ofSeconds(10));
 
+    @Schema(
+        title = "Replica URLs.",
+        description = "Other InfluxDB servers holding the same data, with their base path if they are behind one. Read-only queries are spread over `url` and these replicas according to `loadBalancing`, " +
+            "while writes, Flux scripts calling `to()` and InfluxQL statements other than `SELECT` (without `INTO`) and `SHOW` always go to `url`. " +
+            "A server failing with a connection error, a timeout or a 5xx status other than a query error is ejected for `ejectionDuration`, " +
+            "the query is retried on the next server, and the ejected server is probed with `/ping` before it receives queries again."
+    )
+    @PluginProperty(group = "connection")
+    protected Property<List<String>> replicas;
+
+    @Schema(
+        title = "Load balancing of the queries.",
+        description = "`ROUND_ROBIN` (default) rotates over the healthy servers, `LEAST_LATENCY` prefers the server with the lowest average response time. Only used with `replicas`."
+    )
+    @Builder.Default
+    @PluginProperty(group = "connection")
+    protected Property<Endpoints.Strategy> loadBalancing = Property.ofValue(Endpoints.Strategy.ROUND_ROBIN);
+
+    @Schema(
+        title = "Ejection duration.",
+        description = "How long a failing server is excluded from the queries before it is probed again (ISO-8601 duration). Default is 30 seconds. Only used with `replicas`."
+    )
+    @Builder.Default
+    @PluginProperty(group = "connection")
+    protected Property<Duration> ejectionDuration = Property.ofValue(Duration.ofSeconds(30));
+
+    @Schema(
+        title = "Maximum concurrent requests.",
+        description = "Maximum number of streaming queries and asynchronous requests in flight on one client. Default is 64."
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    protected Property<Integer> maxRequests = Property.ofValue(64);
+
+    @Schema(
+        title = "Maximum concurrent requests per server.",
+        description = "Maximum number of streaming queries and asynchronous requests in flight to one server. Default is 64, as a client talks to a single server " +
+            "(OkHttp's own default of 5 would cap `FluxQueries` and parallel `Copy` partitions)."
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    protected Property<Integer> maxRequestsPerHost = Property.ofValue(64);
+
+    @Schema(
+        title = "Connection pool size.",
+        description = "Maximum number of idle HTTP connections kept open for reuse, for 5 minutes. Default is 5."
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    protected Property<Integer> maxIdleConnections = Property.ofValue(5);
+
+    @Schema(
+        title = "Use virtual threads.",
+        description = "Run the HTTP calls on virtual threads instead of a platform thread pool, so that many concurrent calls don't exhaust the worker's threads. Default is `false`."
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    protected Property<Boolean> virtualThreads = Property.ofValue(false);
+
     protected InfluxDBClient client(RunContext runContext) throws IllegalVariableEvaluationException {
-        String renderedUrl = runContext.render(url).as(String.class).orElseThrow();
-        String renderedToken = runContext.render(token).as(String.class).orElseThrow();
-        Duration rConnectTimeout = runContext.render(connectTimeout).as(Duration.class).orElse(Duration.ofSeconds(10));
-        Duration rReadTimeout = runContext.render(readTimeout).as(Duration.class).orElse(Duration.ofSeconds(10));
+        Rendered rendered = Rendered.of(runContext, this);
+        return create(rendered, rendered.dispatcher());
+    }
+
+    /**
+     * Get a client whose in-flight HTTP calls are cancelled and which is closed when {@code cancellation} is triggered.
+     */
+    protected InfluxDBClient client(RunContext runContext, Cancellation cancellation) throws IllegalVariableEvaluationException {
+        Rendered rendered = Rendered.of(runContext, this);
+        Dispatcher dispatcher = rendered.dispatcher();
+        InfluxDBClient client = create(rendered, dispatcher);
+
+        cancellation.onCancel(() ->
+        {
+            dispatcher.cancelAll();
+            client.close();
+        });
 
+        return client;
+    }
+
+    /**
+     * Lease a client kept warm between calls with the same settings, see {@link ClientCache}; callers close the lease,
+     * never the client.
+     */
+    protected ClientCache.Lease sharedClient(RunContext runContext) throws IllegalVariableEvaluationException {
+        Rendered rendered = Rendered.of(runContext, this);
+        return ClientCache.lease(rendered.key(), () -> create(rendered, rendered.dispatcher()));
+    }
+
+    private static InfluxDBClient create(Rendered rendered, Dispatcher dispatcher) {
         OkHttpClient.Builder okHttpClient = new OkHttpClient.Builder();
-        okHttpClient.connectTimeout(rConnectTimeout.toMillis(), TimeUnit.MILLISECONDS);
-        okHttpClient.readTimeout(rReadTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        okHttpClient.dispatcher(dispatcher);
+        okHttpClient.connectionPool(new ConnectionPool(rendered.maxIdleConnections(), 5, TimeUnit.MINUTES));
+        okHttpClient.connectTimeout(rendered.connectTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        okHttpClient.readTimeout(rendered.readTimeout().toMillis(), TimeUnit.MILLISECONDS);
+
+        if (!rendered.replicas().isEmpty()) {
+            List<String> endpoints = Stream.concat(Stream.of(rendered.url()), rendered.replicas().stream()).distinct().toList();
+            okHttpClient.addInterceptor(new Endpoints(endpoints, rendered.loadBalancing(), rendered.ejectionDuration()));
+        }
 
         InfluxDBClientOptions options = InfluxDBClientOptions.builder()
-            .url(renderedUrl)
-            .authenticateToken(renderedToken.toCharArray())
+            .url(rendered.url())
+            .authenticateToken(rendered.token().toCharArray())
             .okHttpClient(okHttpClient)
             .build();
 
         return InfluxDBClientFactory.create(options);
     }
+
+    private record Rendered(
+        String url,
+        String token,
+        Duration connectTimeout,
+        Duration readTimeout,
+        List<String> replicas,
+        Endpoints.Strategy loadBalancing,
+        Duration ejectionDuration,
+        int maxRequests,
+        int maxRequestsPerHost,
+        int maxIdleConnections,
+        boolean virtualThreads
+    ) {
+        static Rendered of(RunContext runContext, InfluxDBConnection connection) throws IllegalVariableEvaluationException {
+            return new Rendered(
+                runContext.render(connection.url).as(String.class).orElseThrow(),
+                runContext.render(connection.token).as(String.class).orElseThrow(),
+                runContext.render(connection.connectTimeout).as(Duration.class).orElse(Duration.ofSeconds(10)),
+                runContext.render(connection.readTimeout).as(Duration.class).orElse(Duration.ofSeconds(10)),
+                connection.replicas != null ? runContext.render(connection.replicas).asList(String.class) : List.of(),
+                runContext.render(connection.loadBalancing).as(Endpoints.Strategy.class).orElse(Endpoints.Strategy.ROUND_ROBIN),
+                runContext.render(connection.ejectionDuration).as(Duration.class).orElse(Duration.ofSeconds(30)),
+                runContext.render(connection.maxRequests).as(Integer.class).orElse(64),
+                runContext.render(connection.maxRequestsPerHost).as(Integer.class).orElse(64),
+                runContext.render(connection.maxIdleConnections).as(Integer.class).orElse(5),
+                runContext.render(connection.virtualThreads).as(Boolean.class).orElse(false)
+            );
+        }
+
+        Dispatcher dispatcher() {
+            Dispatcher dispatcher;
+            if (virtualThreads) {
+                dispatcher = new Dispatcher(Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("influxdb-http-", 0).factory()));
+            } else {
+                dispatcher = new Dispatcher();
+            }
+
+            dispatcher.setMaxRequests(maxRequests);
+            dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+            return dispatcher;
+        }
+
+        /**
+         * Cache key, with a digest of the token so that it isn't kept in clear in the key.
+         */
+        String key() {
+            try {
+                byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+                return String.join(
+                    "|",
+                    url,
+                    HexFormat.of().formatHex(digest),
+                    connectTimeout.toString(),
+                    readTimeout.toString(),
+                    String.join(",", replicas),
+                    loadBalancing.name(),
+                    ejectionDuration.toString(),
+                    String.valueOf(maxRequests),
+                    String.valueOf(maxRequestsPerHost),
+                    String.valueOf(maxIdleConnections),
+                    String.valueOf(virtualThreads)
+                );
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
 }
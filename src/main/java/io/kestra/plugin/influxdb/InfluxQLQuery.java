@@ -1,7 +1,6 @@
 package io.kestra.plugin.influxdb;
 
 import java.util.*;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.slf4j.Logger;
@@ -31,7 +30,8 @@ import lombok.experimental.SuperBuilder;
 @NoArgsConstructor
 @Schema(
     title = "Run InfluxQL query against InfluxDB",
-    description = "Executes an InfluxQL query for the specified bucket and organization. `fetchType` controls whether rows are returned inline, stored, or just counted."
+    description = "Executes an InfluxQL query for the specified bucket and organization. `fetchType` controls whether rows are returned inline, stored, or just counted. " +
+        "The client receives the whole response before handling it, so memory grows with the result even with `sampleSize` or `summary`; use `FluxQuery` to stream large results."
 )
 @Plugin(
     examples = {
@@ -78,6 +78,17 @@ import lombok.experimental.SuperBuilder;
             type = Counter.TYPE,
             unit = "count",
             description = "The number of records returned by the query"
+        ),
+        @Metric(
+            name = "store.bytes",
+            type = Counter.TYPE,
+            unit = "bytes",
+            description = "The size of the stored files, after compression, when `fetchType` is `STORE`"
+        ),
+        @Metric(
+            name = "store.compression.ratio",
+            type = Counter.TYPE,
+            description = "Uncompressed over compressed size of the stored files when `outputCompression` is set and `format` isn't `PARQUET`"
         )
     }
 )
@@ -97,7 +108,7 @@ public class InfluxQLQuery extends AbstractQuery implements RunnableTask<Abstrac
                 new com.influxdb.client.domain.InfluxQLQuery(renderedQuery, renderedBucket)
             );
 
-            List<Map<String, Object>> results = Optional.of(queryResult.getResults())
+            Stream<Map<String, Object>> results = Optional.of(queryResult.getResults())
                 .orElse(Collections.emptyList())
                 .stream()
                 .filter(Objects::nonNull)
@@ -140,12 +151,14 @@ public class InfluxQLQuery extends AbstractQuery implements RunnableTask<Abstrac
                             return row;
                         })
                         .filter(map -> !map.isEmpty());
-                })
-                .collect(Collectors.toList());
+                });
 
-            runContext.metric(Counter.of("records", results.size()));
+            AbstractQuery.Output output = handleFetchType(runContext, results);
+            runContext.metric(Counter.of("records", output.getTotal()));
 
-            return handleFetchType(runContext, results);
+            return output;
+        } finally {
+            this.emitDeferredMetrics(runContext);
         }
     }
 }
@@ -1,20 +1,35 @@
 package io.kestra.plugin.influxdb;
 
+import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.*;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.influxdb.client.domain.WritePrecision;
 import com.influxdb.client.write.Point;
 
+import io.kestra.core.exceptions.IllegalVariableEvaluationException;
 import io.kestra.core.models.annotations.Example;
+import io.kestra.core.models.annotations.Metric;
 import io.kestra.core.models.annotations.Plugin;
 import io.kestra.core.models.annotations.PluginProperty;
+import io.kestra.core.models.executions.metrics.Counter;
 import io.kestra.core.models.property.Property;
 import io.kestra.core.runners.RunContext;
 import io.kestra.core.serializers.FileSerde;
+import io.kestra.core.serializers.JacksonMapper;
+import io.kestra.plugin.influxdb.utils.CsvReader;
+import io.kestra.plugin.influxdb.utils.LineProtocol;
+import io.kestra.plugin.influxdb.utils.TagDictionary;
+import io.kestra.plugin.influxdb.utils.WindowAggregator;
 
 import io.swagger.v3.oas.annotations.media.Schema;
-import jakarta.validation.constraints.NotNull;
+import lombok.Builder;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -31,8 +46,8 @@ import static io.kestra.plugin.influxdb.utils.TimeUtils.toInstant;
 @Getter
 @NoArgsConstructor
 @Schema(
-    title = "Load ION records into InfluxDB",
-    description = "Reads an ION file from internal storage and writes each object as a point to InfluxDB with nanosecond precision. Uses the provided `measurement`, batches writes in chunks of 1000 by default, and skips a `time` field unless `timeField` is set so InfluxDB assigns the server timestamp."
+    title = "Load ION, CSV, NDJSON or line-protocol records into InfluxDB",
+    description = "Reads a file (or a list of files, loaded concurrently over one client) from internal storage in the given `format` (ION by default) and writes each record as a point to InfluxDB with nanosecond precision. Uses the provided `measurement`, batches writes in chunks of 1000 by default, and skips a `time` field unless `timeField` is set so InfluxDB assigns the server timestamp."
 )
 @Plugin(
     examples = {
@@ -58,18 +73,170 @@ import static io.kestra.plugin.influxdb.utils.TimeUtils.toInstant;
                     from: "{{ inputs.file }}"
                     measurement: "sensor_data"
                 """
+        ),
+        @Example(
+            title = "Load every ION shard produced by an upstream task in parallel.",
+            full = true,
+            code = """
+                id: influxdb_load_shards
+                namespace: company.team
+
+                inputs:
+                  - id: file
+                    type: FILE
+
+                tasks:
+                  - id: split
+                    type: io.kestra.plugin.core.storage.Split
+                    from: "{{ inputs.file }}"
+                    rows: 100000
+
+                  - id: load
+                    type: io.kestra.plugin.influxdb.Load
+                    connection:
+                      url: "{{ secret('INFLUXDB_URL') }}"
+                      token: "{{ secret('INFLUXDB_TOKEN') }}"
+                    org: "{{ secret('INFLUXDB_ORG') }}"
+                    bucket: "{{ secret('INFLUXDB_BUCKET') }}"
+                    from: "{{ outputs.split.uris }}"
+                    concurrency: 8
+                    measurement: "sensor_data"
+                """
+        ),
+        @Example(
+            title = "Downsample 1-second sensor data to 1-minute points while loading.",
+            full = true,
+            code = """
+                id: influxdb_load_downsampled
+                namespace: company.team
+
+                inputs:
+                  - id: file
+                    type: FILE
+
+                tasks:
+                  - id: load
+                    type: io.kestra.plugin.influxdb.Load
+                    connection:
+                      url: "{{ secret('INFLUXDB_URL') }}"
+                      token: "{{ secret('INFLUXDB_TOKEN') }}"
+                    org: "{{ secret('INFLUXDB_ORG') }}"
+                    bucket: "{{ secret('INFLUXDB_BUCKET') }}"
+                    from: "{{ inputs.file }}"
+                    measurement: "sensor_data"
+                    tags:
+                      - sensor
+                    timeField: time
+                    aggregation:
+                      window: PT1M
+                      fields:
+                        temperature: MEAN
+                        humidity: MAX
+                """
+        ),
+        @Example(
+            title = "Load a semicolon-separated CSV export without a conversion task.",
+            full = true,
+            code = """
+                id: influxdb_load_csv
+                namespace: company.team
+
+                inputs:
+                  - id: file
+                    type: FILE
+
+                tasks:
+                  - id: load
+                    type: io.kestra.plugin.influxdb.Load
+                    connection:
+                      url: "{{ secret('INFLUXDB_URL') }}"
+                      token: "{{ secret('INFLUXDB_TOKEN') }}"
+                    org: "{{ secret('INFLUXDB_ORG') }}"
+                    bucket: "{{ secret('INFLUXDB_BUCKET') }}"
+                    from: "{{ inputs.file }}"
+                    format: CSV
+                    delimiter: ";"
+                    measurement: "sensor_data"
+                    tags:
+                      - sensor
+                    timeField: time
+                    fieldTypes:
+                      count: LONG
+                      firmware: STRING
+                """
+        )
+    },
+    metrics = {
+        @Metric(
+            name = "aggregation.input",
+            type = Counter.TYPE,
+            unit = "count",
+            description = "Number of records read before aggregation, when `aggregation` is set"
+        ),
+        @Metric(
+            name = "aggregation.late",
+            type = Counter.TYPE,
+            unit = "count",
+            description = "Number of records dropped because their aggregation window was already written"
+        ),
+        @Metric(
+            name = "tags.cache.hits",
+            type = Counter.TYPE,
+            unit = "count",
+            description = "Number of tag values found in the tag value cache"
+        ),
+        @Metric(
+            name = "tags.cache.misses",
+            type = Counter.TYPE,
+            unit = "count",
+            description = "Number of tag values escaped and added to the tag value cache"
         )
     }
 )
 public class Load extends AbstractLoad {
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {};
+
     @Schema(
         title = "Measurement for all points",
-        description = "Measurement applied to every point from the ION file"
+        description = "Measurement applied to every point from the file; required unless `format` is `LINE_PROTOCOL`"
     )
-    @NotNull
     @PluginProperty(group = "main")
     private Property<String> measurement;
 
+    @Schema(
+        title = "File format",
+        description = "`ION` (default), `CSV`, `NDJSON` (one JSON object per line) or `LINE_PROTOCOL`. " +
+            "Line-protocol records are written as they are, with nanosecond timestamps (the client time for records without one when `onError` is `SKIP`), and `measurement`, `tags`, `timeField` and `aggregation` don't apply."
+    )
+    @Builder.Default
+    @PluginProperty(group = "main")
+    private Property<Format> format = Property.ofValue(Format.ION);
+
+    @Schema(
+        title = "CSV delimiter",
+        description = "Single character separating the CSV fields; defaults to `,`"
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    private Property<String> delimiter = Property.ofValue(",");
+
+    @Schema(
+        title = "CSV columns",
+        description = "Names of the CSV columns, for files without a header record; by default the first record is the header"
+    )
+    @PluginProperty(group = "advanced")
+    private Property<List<String>> columns;
+
+    @Schema(
+        title = "Field types",
+        description = "Type of the fields by name: `STRING`, `LONG`, `DOUBLE` or `BOOLEAN`. " +
+            "Fields without a type are written as doubles when they are strings that parse as a number, as booleans when they are booleans, and as strings otherwise; " +
+            "with `format: CSV` or `NDJSON`, numbers are also typed: integral ones as longs and the others as doubles. " +
+            "ION numbers without a type keep being written as strings, so that buckets already loaded by this task don't get field type conflicts; set their type here to write them as numbers."
+    )
+    @PluginProperty(group = "advanced")
+    private Property<Map<String, FieldType>> fieldTypes;
+
     @Schema(
         title = "Fields treated as tags",
         description = "Fields listed here are stored as tags; remaining keys become fields"
@@ -84,54 +251,310 @@ public class Load extends AbstractLoad {
     @PluginProperty(group = "advanced")
     private Property<String> timeField;
 
-    @SuppressWarnings("unchecked")
+    @Schema(
+        title = "Pre-write aggregation",
+        description = "Collapses points per series and time `window` with an aggregate function per field before batching, so raw high-frequency data is written at the resolution it is queried. " +
+            "Requires `timeField` and a single file in `from`. Each series keeps one open window, so memory is bounded by the number of series when the input is time-ordered per series; " +
+            "records older than the open window of their series are dropped and counted in the `aggregation.late` metric."
+    )
+    @PluginProperty(group = "advanced")
+    private Aggregation aggregation;
+
+    @Schema(
+        title = "Tag value cache size",
+        description = "Maximum number of distinct tag values whose escaped line-protocol form is kept between records, the least recently used being evicted; " +
+            "tag sets are then built from cached values, so repeated values cost a lookup instead of an escaping pass even when tags have many combinations. Defaults to 10000, `0` disables the cache."
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    private Property<Integer> tagCacheSize = Property.ofValue(10_000);
+
+    /**
+     * Windows are aggregated per file, so a window spanning two files would be written twice with the same series
+     * and timestamp, the last point silently replacing the first one.
+     */
+    @Override
+    public Output run(RunContext runContext) throws Exception {
+        if (aggregation != null && this.uris(runContext).size() > 1) {
+            throw new IllegalArgumentException("`aggregation` is not supported when `from` is a list of files, as a window may span several of them");
+        }
+
+        return super.run(runContext);
+    }
+
     @Override
     protected Flux<Point> source(RunContext runContext, InputStream inputStream) throws Exception {
-        String renderedMeasurement = runContext.render(measurement).as(String.class).orElseThrow();
+        String renderedMeasurement = this.renderMeasurement(runContext);
         String renderedTimeField = runContext.render(timeField).as(String.class).orElse(null);
         List<String> renderedTags = runContext.render(tags).asList(String.class);
+        Map<String, FieldType> renderedFieldTypes = fieldTypes != null ? runContext.render(fieldTypes).asMap(String.class, FieldType.class) : Map.of();
+        boolean typeNumbers = this.renderFormat(runContext) != Format.ION;
+
+        if (aggregation != null) {
+            WindowAggregator aggregator = aggregation.aggregator(runContext, renderedMeasurement, renderedTimeField, renderedTags);
 
-        return FileSerde.readAll(inputStream)
-            .map(throwFunction(data ->
+            return this.records(runContext, inputStream)
+                .flatMapIterable(aggregator::add)
+                .concatWith(Flux.defer(() -> Flux.fromIterable(aggregator.flush())))
+                .doOnComplete(() ->
+                {
+                    this.deferMetric(Counter.of("aggregation.input", aggregator.input()));
+                    this.deferMetric(Counter.of("aggregation.late", aggregator.late()));
+                    if (aggregator.late() > 0) {
+                        runContext.logger().warn("{} records arrived after their window was written and were dropped", aggregator.late());
+                    }
+                });
+        }
+
+        Set<String> tagKeys = renderedTags != null ? new HashSet<>(renderedTags) : Set.of();
+
+        return this.records(runContext, inputStream)
+            .map(throwFunction(values -> point(values, renderedMeasurement, renderedTimeField, tagKeys, renderedFieldTypes, typeNumbers)));
+    }
+
+    /**
+     * Line-protocol records are passed through, with the client time appended to the ones without a timestamp when
+     * {@code stampTime} is set, as for encoded points. Otherwise, without aggregation, write each record straight
+     * into one reused builder, with its tag set built from the values cached in a {@link TagDictionary}, instead of
+     * going through a point.
+     */
+    @Override
+    protected Flux<String> lines(RunContext runContext, InputStream inputStream, boolean stampTime) throws Exception {
+        if (this.renderFormat(runContext) == Format.LINE_PROTOCOL) {
+            if (aggregation != null) {
+                throw new IllegalArgumentException("`aggregation` is not supported with `format: LINE_PROTOCOL`");
+            }
+
+            return Flux.fromStream(new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8)).lines())
+                .map(String::strip)
+                .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                .map(line -> stampTime ? LineProtocol.withTime(line, nanos(Instant.now())) : line);
+        }
+
+        List<String> renderedTags = runContext.render(tags).asList(String.class);
+        int renderedTagCacheSize = runContext.render(tagCacheSize).as(Integer.class).orElse(10_000);
+
+        if (aggregation != null || renderedTags == null || renderedTags.isEmpty() || renderedTagCacheSize <= 0) {
+            return super.lines(runContext, inputStream, stampTime);
+        }
+
+        String renderedMeasurement = this.renderMeasurement(runContext);
+        String renderedTimeField = runContext.render(timeField).as(String.class).orElse(null);
+        Map<String, FieldType> renderedFieldTypes = fieldTypes != null ? runContext.render(fieldTypes).asMap(String.class, FieldType.class) : Map.of();
+        boolean typeNumbers = this.renderFormat(runContext) != Format.ION;
+        Set<String> tagKeys = new HashSet<>(renderedTags);
+
+        TagDictionary dictionary = new TagDictionary(
+            tagKeys.stream()
+                .filter(key -> !key.equals(renderedTimeField) && !(renderedTimeField == null && "time".equalsIgnoreCase(key)))
+                .toList(),
+            renderedTagCacheSize
+        );
+        String escapedMeasurement = TagDictionary.escape(renderedMeasurement, false);
+        Map<String, String> escapedFieldKeys = new HashMap<>();
+        StringBuilder line = new StringBuilder(256);
+
+        return this.records(runContext, inputStream)
+            .map(throwFunction(values ->
             {
-                Map<String, Object> values = (Map<String, Object>) data;
-                Point point = Point.measurement(renderedMeasurement);
+                line.setLength(0);
+                dictionary.appendTagSet(line.append(escapedMeasurement), values).append(' ');
+                int fieldsStart = line.length();
+                Instant time = null;
 
                 for (Map.Entry<String, Object> entry : values.entrySet()) {
                     String key = entry.getKey();
                     Object value = entry.getValue();
 
-                    boolean isExplicitTimeField = key.equals(renderedTimeField);
-                    boolean isImplicitTimeField = renderedTimeField == null && "time".equalsIgnoreCase(key);
-
-                    if (isExplicitTimeField || isImplicitTimeField) {
+                    if (key.equals(renderedTimeField)) {
+                        time = toInstant(value);
+                        continue;
+                    }
+                    if ((renderedTimeField == null && "time".equalsIgnoreCase(key)) || tagKeys.contains(key)) {
                         continue;
                     }
 
-                    if (renderedTags != null && renderedTags.contains(key)) {
-                        point.addTag(key, value == null ? null : value.toString());
-                    } else {
-                        switch (value) {
-                            case String s -> {
-                                try {
-                                    double parsed = Double.parseDouble(s);
-                                    point.addField(key, parsed);
-                                } catch (NumberFormatException e) {
-                                    point.addField(key, s);
-                                }
-                            }
-                            case Boolean b -> point.addField(key, b);
-                            case null, default -> point.addField(key, Objects.requireNonNull(value).toString());
-                        }
+                    int fieldStart = line.length();
+                    if (fieldStart > fieldsStart) {
+                        line.append(',');
                     }
+                    // field keys are the schema of the file, only cache a bounded number of them
+                    String escapedKey = escapedFieldKeys.size() < 1_000 ?
+                        escapedFieldKeys.computeIfAbsent(key, k -> TagDictionary.escape(k, true)) :
+                        escapedFieldKeys.getOrDefault(key, TagDictionary.escape(key, true));
+                    line.append(escapedKey).append('=');
+                    if (!LineProtocol.appendField(line, fieldValue(key, value, renderedFieldTypes, typeNumbers))) {
+                        line.setLength(fieldStart);
+                    }
+                }
+
+                if (line.length() == fieldsStart) {
+                    return "";
+                }
+
+                if (time != null) {
+                    line.append(' ').append(nanos(time));
+                } else if (stampTime) {
+                    line.append(' ').append(nanos(Instant.now()));
+                }
+                return line.toString();
+            }))
+            .doOnComplete(() ->
+            {
+                this.deferMetric(Counter.of("tags.cache.hits", dictionary.hits()));
+                this.deferMetric(Counter.of("tags.cache.misses", dictionary.misses()));
+            });
+    }
+
+    private static long nanos(Instant instant) {
+        return Math.multiplyExact(instant.getEpochSecond(), 1_000_000_000L) + instant.getNano();
+    }
+
+    private Format renderFormat(RunContext runContext) throws IllegalVariableEvaluationException {
+        return runContext.render(format).as(Format.class).orElse(Format.ION);
+    }
+
+    private String renderMeasurement(RunContext runContext) throws IllegalVariableEvaluationException {
+        return runContext.render(measurement).as(String.class)
+            .orElseThrow(() -> new IllegalArgumentException("`measurement` is required unless `format` is `LINE_PROTOCOL`"));
+    }
+
+    /**
+     * Records of the source file as maps, whatever its format.
+     */
+    @SuppressWarnings("unchecked")
+    private Flux<Map<String, Object>> records(RunContext runContext, InputStream inputStream) throws Exception {
+        Format renderedFormat = this.renderFormat(runContext);
+
+        return switch (renderedFormat) {
+            case ION -> FileSerde.readAll(inputStream).map(data -> (Map<String, Object>) data);
+            case NDJSON -> {
+                ObjectMapper mapper = JacksonMapper.ofJson();
+
+                yield Flux.fromStream(new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8)).lines())
+                    .filter(line -> !line.isBlank())
+                    .map(throwFunction(line -> mapper.readValue(line, MAP_TYPE)));
+            }
+            case CSV -> {
+                String renderedDelimiter = runContext.render(delimiter).as(String.class).orElse(",");
+                if (renderedDelimiter.length() != 1) {
+                    throw new IllegalArgumentException("`delimiter` must be a single character, got '" + renderedDelimiter + "'");
+                }
 
-                    if (renderedTimeField != null && values.containsKey(renderedTimeField)) {
-                        Object timeValue = values.get(renderedTimeField);
-                        point.time(toInstant(timeValue), WritePrecision.NS);
+                List<String> renderedColumns = columns != null ? runContext.render(columns).asList(String.class) : null;
+                CsvReader reader = new CsvReader(
+                    new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8)),
+                    renderedDelimiter.charAt(0),
+                    renderedColumns == null || renderedColumns.isEmpty() ? null : renderedColumns
+                );
+
+                yield Flux.<Map<String, Object>>generate(sink ->
+                {
+                    try {
+                        Map<String, Object> row = reader.next();
+                        if (row == null) {
+                            sink.complete();
+                        } else {
+                            sink.next(row);
+                        }
+                    } catch (IOException e) {
+                        sink.error(e);
                     }
+                });
+            }
+            case LINE_PROTOCOL -> throw new IllegalArgumentException("Line-protocol files can't be read as records");
+        };
+    }
+
+    private static Point point(
+        Map<String, Object> values,
+        String measurement,
+        String timeField,
+        Set<String> tagKeys,
+        Map<String, FieldType> fieldTypes,
+        boolean typeNumbers
+    ) {
+        Point point = Point.measurement(measurement);
+
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            String key = entry.getKey();
+            Object value = entry.getValue();
+
+            boolean isExplicitTimeField = key.equals(timeField);
+            boolean isImplicitTimeField = timeField == null && "time".equalsIgnoreCase(key);
+
+            if (isExplicitTimeField || isImplicitTimeField) {
+                continue;
+            }
+
+            if (tagKeys.contains(key)) {
+                point.addTag(key, value == null ? null : value.toString());
+            } else {
+                switch (fieldValue(key, value, fieldTypes, typeNumbers)) {
+                    case Long l -> point.addField(key, l.longValue());
+                    case Double d -> point.addField(key, d.doubleValue());
+                    case Boolean b -> point.addField(key, b.booleanValue());
+                    case Object o -> point.addField(key, o.toString());
+                }
+            }
+
+            if (timeField != null && values.containsKey(timeField)) {
+                Object timeValue = values.get(timeField);
+                point.time(toInstant(timeValue), WritePrecision.NS);
+            }
+        }
+
+        return point;
+    }
+
+    /**
+     * Value of a field as a {@code Long}, {@code Double}, {@code Boolean} or {@code String}: converted to its type in
+     * {@code fieldTypes}, otherwise strings parsed as a float when possible and, with {@code typeNumbers}, integral
+     * numbers as longs and other numbers as doubles. Without it, numbers are written as strings, as ION loads always did.
+     */
+    private static Object fieldValue(String key, Object value, Map<String, FieldType> fieldTypes, boolean typeNumbers) {
+        if (fieldTypes.containsKey(key)) {
+            return fieldTypes.get(key).convert(Objects.requireNonNull(value, () -> "Field '" + key + "' has no value"));
+        }
+
+        return switch (value) {
+            case String s -> {
+                try {
+                    yield Double.parseDouble(s);
+                } catch (NumberFormatException e) {
+                    yield s;
                 }
+            }
+            case Long l when typeNumbers -> l;
+            case Integer i when typeNumbers -> i.longValue();
+            case Short sh when typeNumbers -> sh.longValue();
+            case Byte b when typeNumbers -> b.longValue();
+            case Number n when typeNumbers -> n.doubleValue();
+            case Boolean b -> b;
+            case null, default -> Objects.requireNonNull(value, () -> "Field '" + key + "' has no value").toString();
+        };
+    }
+
+    public enum Format {
+        ION,
+        CSV,
+        NDJSON,
+        LINE_PROTOCOL
+    }
+
+    public enum FieldType {
+        STRING,
+        LONG,
+        DOUBLE,
+        BOOLEAN;
 
-                return point;
-            }));
+        Object convert(Object value) {
+            return switch (this) {
+                case STRING -> value.toString();
+                case LONG -> value instanceof Number number ? number.longValue() : Long.parseLong(value.toString().strip());
+                case DOUBLE -> value instanceof Number number ? number.doubleValue() : Double.parseDouble(value.toString().strip());
+                case BOOLEAN -> value instanceof Boolean bool ? bool : Boolean.parseBoolean(value.toString().strip());
+            };
+        }
     }
 }
@@ -0,0 +1,91 @@
+package io.kestra.plugin.influxdb;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.kestra.core.exceptions.IllegalVariableEvaluationException;
+import io.kestra.core.models.annotations.PluginProperty;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.runners.RunContext;
+import io.kestra.plugin.influxdb.utils.RateLimiter;
+import io.kestra.plugin.influxdb.utils.Throttle;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+@SuperBuilder
+@ToString
+@EqualsAndHashCode
+@Getter
+@NoArgsConstructor
+public class RateLimit {
+    static final Duration IDLE_TIMEOUT = Duration.ofMinutes(15);
+
+    private static final Map<String, RateLimiter> SHARED = new ConcurrentHashMap<>();
+
+    @Schema(
+        title = "Maximum points per second",
+        description = "Batches are delayed so that the average write rate stays below this number of points per second"
+    )
+    @PluginProperty(group = "execution")
+    protected Property<Double> pointsPerSecond;
+
+    @Schema(
+        title = "Maximum bytes per second",
+        description = "Batches are delayed so that the average line-protocol payload rate stays below this number of bytes per second"
+    )
+    @PluginProperty(group = "execution")
+    protected Property<Double> bytesPerSecond;
+
+    @Schema(
+        title = "Share the limit across tasks",
+        description = "When enabled, every task running on the same worker and writing to the same connection URL with the same limits draws from a single budget, dropped once it hasn't been used for 15 minutes"
+    )
+    @Builder.Default
+    @PluginProperty(group = "execution")
+    protected Property<Boolean> shared = Property.ofValue(false);
+
+    protected Throttle throttle(RunContext runContext, InfluxDBConnection connection) throws IllegalVariableEvaluationException {
+        Double rPointsPerSecond = runContext.render(pointsPerSecond).as(Double.class).orElse(null);
+        Double rBytesPerSecond = runContext.render(bytesPerSecond).as(Double.class).orElse(null);
+        boolean rShared = runContext.render(shared).as(Boolean.class).orElse(false);
+
+        if (rPointsPerSecond == null && rBytesPerSecond == null) {
+            return Throttle.NONE;
+        }
+
+        String url = rShared ? runContext.render(connection.getUrl()).as(String.class).orElseThrow() : null;
+
+        return new Throttle(
+            limiter(url, "points", rPointsPerSecond),
+            limiter(url, "bytes", rBytesPerSecond)
+        );
+    }
+
+    private static RateLimiter limiter(String sharedUrl, String unit, Double rate) {
+        if (rate == null) {
+            return null;
+        }
+
+        if (sharedUrl == null) {
+            return new RateLimiter(rate);
+        }
+
+        evictIdle(System.nanoTime());
+
+        return SHARED.compute(sharedUrl + "|" + unit + "|" + rate, (key, limiter) -> limiter != null ? limiter.touch() : new RateLimiter(rate));
+    }
+
+    /**
+     * Drop the shared budgets not used for {@link #IDLE_TIMEOUT}, like {@link io.kestra.plugin.influxdb.utils.ClientCache},
+     * so that URLs and rates that aren't used anymore don't stay in memory for the life of the worker.
+     */
+    static void evictIdle(long now) {
+        for (String key : SHARED.keySet()) {
+            // atomic with the lookups of the same key, so that a budget being handed out is never dropped
+            SHARED.computeIfPresent(key, (k, limiter) -> limiter.isIdle(now, IDLE_TIMEOUT.toNanos()) ? null : limiter);
+        }
+    }
+}
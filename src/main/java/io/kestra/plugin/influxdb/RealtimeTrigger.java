@@ -0,0 +1,434 @@
+package io.kestra.plugin.influxdb;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+
+import com.influxdb.client.InfluxDBClient;
+import com.influxdb.client.QueryApi;
+
+import io.kestra.core.models.annotations.Example;
+import io.kestra.core.models.annotations.Plugin;
+import io.kestra.core.models.annotations.PluginProperty;
+import io.kestra.core.models.conditions.ConditionContext;
+import io.kestra.core.models.executions.Execution;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.models.triggers.*;
+import io.kestra.core.runners.RunContext;
+import io.kestra.plugin.influxdb.utils.FluxRecords;
+import io.kestra.plugin.influxdb.utils.QueryStream;
+import io.kestra.plugin.influxdb.utils.TriggerState;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+@SuperBuilder
+@ToString
+@EqualsAndHashCode
+@Getter
+@NoArgsConstructor
+@Schema(
+    title = "Start a flow for each new InfluxDB row in near real time",
+    description = "Keeps one client open and runs the Flux `query` in a loop over consecutive time ranges, from a watermark advancing to now minus `lag`; " +
+        "the query must select them with `range(start: {{ range.start }}, stop: {{ range.stop }})`. " +
+        "Each new row, or micro-batch of up to `batchSize` rows, starts one execution. With `overlap`, each range is extended backwards to catch late points and already emitted rows are deduplicated. " +
+        "Ranges are only queried when the previous executions have been emitted, so a slow consumer slows down the polling instead of buffering rows. " +
+        "The watermark is saved in the namespace KV store, so after a restart or a redeployment the trigger resumes where it stopped and delivers the rows written in the meantime; " +
+        "rows of the last range read before the stop, or of its overlap, may then be delivered again."
+)
+@Plugin(
+    examples = {
+        @Example(
+            title = "Start an alerting flow within a second of a high CPU point being written.",
+            full = true,
+            code = """
+                id: influxdb_realtime
+                namespace: company.team
+
+                tasks:
+                  - id: alert
+                    type: io.kestra.plugin.core.log.Log
+                    message: "{{ trigger.row.host }} is at {{ trigger.row._value }}%"
+
+                triggers:
+                  - id: watch
+                    type: io.kestra.plugin.influxdb.RealtimeTrigger
+                    connection:
+                      url: "{{ secret('INFLUXDB_URL') }}"
+                      token: "{{ secret('INFLUXDB_TOKEN') }}"
+                    org: "my-org"
+                    pollInterval: PT0.5S
+                    overlap: PT5S
+                    query: |
+                      from(bucket: "telemetry")
+                        |> range(start: {{ range.start }}, stop: {{ range.stop }})
+                        |> filter(fn: (r) => r._measurement == "cpu" and r._field == "usage")
+                        |> filter(fn: (r) => r._value > 90.0)
+                """
+        )
+    }
+)
+public class RealtimeTrigger extends AbstractTrigger implements RealtimeTriggerInterface, TriggerOutput<RealtimeTrigger.Output> {
+    private static final Set<String> NON_IDENTITY_COLUMNS = Set.of("result", "table", "_start", "_stop");
+    private static final int BUFFER_SIZE = 10_000;
+    private static final String WATERMARK_STATE = "watermark";
+    private static final Duration SAVE_INTERVAL = Duration.ofMinutes(1);
+
+    @Schema(title = "Connection to the InfluxDB instance")
+    @NotNull
+    @PluginProperty(group = "main")
+    private InfluxDBConnection connection;
+
+    @Schema(title = "Organization to query")
+    @NotNull
+    @PluginProperty(group = "main")
+    private Property<String> org;
+
+    @Schema(
+        title = "Flux query",
+        description = "Rendered for each range with the `range.start` and `range.stop` variables (RFC3339)"
+    )
+    @NotNull
+    @PluginProperty(group = "main")
+    private Property<String> query;
+
+    @Schema(
+        title = "Poll interval",
+        description = "Pause between two range queries when the previous one was empty; defaults to 1 second"
+    )
+    @Builder.Default
+    @PluginProperty(group = "execution")
+    private Property<Duration> pollInterval = Property.ofValue(Duration.ofSeconds(1));
+
+    @Schema(
+        title = "Lag",
+        description = "Ranges stop at now minus this duration, to leave time for in-flight writes; defaults to 1 second"
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    private Property<Duration> lag = Property.ofValue(Duration.ofSeconds(1));
+
+    @Schema(
+        title = "Overlap",
+        description = "Extend each range backwards by this duration to catch points written late; rows already emitted in the overlap are recognized by their columns and skipped, " +
+            "so memory grows with the number of rows in `overlap`, not with the size of the range"
+    )
+    @PluginProperty(group = "advanced")
+    private Property<Duration> overlap;
+
+    @Schema(
+        title = "Initial lookback",
+        description = "The first range starts this long before the trigger starts when no watermark was saved by a previous run; defaults to 0 (only new rows)"
+    )
+    @PluginProperty(group = "advanced")
+    private Property<Duration> since;
+
+    @Schema(
+        title = "Batch size",
+        description = "Maximum number of rows per execution; defaults to 1 (one execution per row)"
+    )
+    @Builder.Default
+    @PluginProperty(group = "execution")
+    private Property<Integer> batchSize = Property.ofValue(1);
+
+    @Builder.Default
+    @Getter(AccessLevel.NONE)
+    private final AtomicBoolean isActive = new AtomicBoolean(true);
+
+    @Builder.Default
+    @Getter(AccessLevel.NONE)
+    private final CountDownLatch waitForTermination = new CountDownLatch(1);
+
+    @Override
+    public Publisher<Execution> evaluate(ConditionContext conditionContext, TriggerContext context) throws Exception {
+        RunContext runContext = conditionContext.getRunContext();
+
+        String rOrg = runContext.render(org).as(String.class).orElseThrow();
+        Duration rPollInterval = runContext.render(pollInterval).as(Duration.class).orElse(Duration.ofSeconds(1));
+        Duration rLag = runContext.render(lag).as(Duration.class).orElse(Duration.ofSeconds(1));
+        Duration rOverlap = runContext.render(overlap).as(Duration.class).orElse(Duration.ZERO);
+        Duration rSince = runContext.render(since).as(Duration.class).orElse(Duration.ZERO);
+        int rBatchSize = Math.max(1, runContext.render(batchSize).as(Integer.class).orElse(1));
+
+        TriggerState state = TriggerState.of(conditionContext, this);
+        Instant position = Instant.now().minus(rLag).minus(rSince);
+        try {
+            Optional<Instant> saved = state.get(WATERMARK_STATE).map(value -> Instant.parse((String) value.get("position")));
+            if (saved.isPresent()) {
+                position = saved.get();
+                runContext.logger().info("Resuming from the saved watermark {}", position);
+            }
+        } catch (Exception e) {
+            runContext.logger().warn("Unable to read the saved watermark, starting from {}", position, e);
+        }
+
+        InfluxDBClient client = this.connection.client(runContext);
+        Watermark initial = new Watermark(position, state, runContext.logger());
+
+        return Flux.<List<Map<String, Object>>, Watermark>generate(
+                () -> initial,
+                (watermark, sink) ->
+                {
+                    try {
+                        List<Map<String, Object>> rows = this.next(runContext, client.getQueryApi(), rOrg, watermark, rPollInterval, rLag, rOverlap, rBatchSize);
+                        if (rows == null) {
+                            sink.complete();
+                        } else {
+                            sink.next(rows);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        sink.complete();
+                    }
+                    return watermark;
+                },
+                watermark ->
+                {
+                    watermark.close();
+                    watermark.save();
+                }
+            )
+            .subscribeOn(Schedulers.boundedElastic())
+            .map(rows -> TriggerService.generateRealtimeExecution(
+                this,
+                conditionContext,
+                context,
+                Output.builder()
+                    .row(rows.getFirst())
+                    .rows(rows)
+                    .size(rows.size())
+                    .build()
+            ))
+            .doFinally(signal ->
+            {
+                client.close();
+                this.waitForTermination.countDown();
+            });
+    }
+
+    /**
+     * Read the next micro-batch of new rows, from the range being read or from the next ranges after the watermark.
+     * <p>
+     * Rows are taken from the query stream as they arrive, so that at most one batch is held in memory, along with the
+     * identities of the emitted rows that fall in the overlap of the next range; the watermark only advances once a
+     * range has been fully read. A range failing midway is queried again: its rows already emitted in the overlap are
+     * skipped, older ones may be emitted again.
+     *
+     * @return up to {@code rBatchSize} new rows, or {@code null} when the trigger was stopped
+     */
+    private List<Map<String, Object>> next(
+        RunContext runContext,
+        QueryApi queryApi,
+        String rOrg,
+        Watermark watermark,
+        Duration rPollInterval,
+        Duration rLag,
+        Duration rOverlap,
+        int rBatchSize
+    ) throws InterruptedException {
+        Logger logger = runContext.logger();
+
+        while (this.isActive.get()) {
+            if (watermark.range == null) {
+                Instant stop = Instant.now().minus(rLag);
+                if (!stop.isAfter(watermark.position)) {
+                    TimeUnit.MILLISECONDS.sleep(rPollInterval.toMillis());
+                    continue;
+                }
+
+                Instant start = watermark.position.minus(rOverlap);
+                try {
+                    String rQuery = runContext.render(query).as(String.class, Map.of("range", Map.of("start", start.toString(), "stop", stop.toString()))).orElseThrow();
+                    watermark.range = new Range(QueryStream.open(queryApi, QueryStream.query(rQuery), rOrg, BUFFER_SIZE), start, stop, stop.minus(rOverlap));
+                } catch (Exception e) {
+                    logger.warn("Unable to query range [{}, {}), retrying in {}", start, stop, rPollInterval, e);
+                    TimeUnit.MILLISECONDS.sleep(rPollInterval.toMillis());
+                    continue;
+                }
+            }
+
+            Range range = watermark.range;
+            List<Map<String, Object>> rows = new ArrayList<>(Math.min(rBatchSize, BUFFER_SIZE));
+            boolean exhausted;
+
+            try {
+                while (rows.size() < rBatchSize && this.isActive.get() && range.stream.hasNext()) {
+                    Map<String, Object> row = FluxRecords.toRow(range.stream.next());
+                    String identity = identity(row);
+                    Instant time = time(row, range.stop);
+
+                    if (watermark.emitted(identity)) {
+                        continue;
+                    }
+                    // only the rows the next range overlaps need to be recognized later
+                    if (!time.isBefore(range.overlapStart) && range.seen.putIfAbsent(identity, time) != null) {
+                        continue;
+                    }
+                    rows.add(row);
+                    range.hasRows = true;
+                }
+                exhausted = rows.size() < rBatchSize && this.isActive.get();
+            } catch (Exception e) {
+                logger.warn("Unable to query range [{}, {}), retrying in {}", range.start, range.stop, rPollInterval, e);
+                watermark.retry();
+                if (!rows.isEmpty()) {
+                    return rows;
+                }
+                TimeUnit.MILLISECONDS.sleep(rPollInterval.toMillis());
+                continue;
+            }
+
+            if (!this.isActive.get()) {
+                return null;
+            }
+
+            if (exhausted) {
+                watermark.advance(rOverlap);
+            }
+
+            if (!rows.isEmpty()) {
+                return rows;
+            }
+
+            TimeUnit.MILLISECONDS.sleep(rPollInterval.toMillis());
+        }
+
+        return null;
+    }
+
+    @Override
+    public void kill() {
+        stop(true);
+    }
+
+    @Override
+    public void stop() {
+        stop(false);
+    }
+
+    private void stop(boolean wait) {
+        if (!isActive.compareAndSet(true, false)) {
+            return;
+        }
+
+        if (wait) {
+            try {
+                this.waitForTermination.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static String identity(Map<String, Object> row) {
+        TreeMap<String, Object> identity = new TreeMap<>(row);
+        identity.keySet().removeAll(NON_IDENTITY_COLUMNS);
+        return identity.toString();
+    }
+
+    private static Instant time(Map<String, Object> row, Instant stop) {
+        return row.get("_time") instanceof Instant instant ? instant : stop;
+    }
+
+    /**
+     * Query position with the identities of the rows already emitted that fall in the overlapping part of the next
+     * range, and the range being read. The position is saved in the trigger state after ranges with rows, and at most
+     * every {@link #SAVE_INTERVAL} otherwise, so that a restart resumes from it.
+     */
+    private static class Watermark {
+        private Instant position;
+        private final Map<String, Instant> emitted = new HashMap<>();
+        private final TriggerState state;
+        private final Logger logger;
+        private Instant saved = Instant.now();
+        private Range range;
+
+        Watermark(Instant position, TriggerState state, Logger logger) {
+            this.position = position;
+            this.state = state;
+            this.logger = logger;
+        }
+
+        boolean emitted(String identity) {
+            return emitted.containsKey(identity);
+        }
+
+        /**
+         * The range was fully read: move to its stop, keeping the rows emitted in the overlap of the next range.
+         */
+        void advance(Duration overlap) {
+            Instant nextStart = range.stop.minus(overlap);
+
+            this.position = range.stop;
+            emitted.putAll(range.seen);
+            emitted.values().removeIf(time -> time.isBefore(nextStart));
+            if (range.hasRows || Instant.now().isAfter(saved.plus(SAVE_INTERVAL))) {
+                this.save();
+            }
+            this.close();
+        }
+
+        void save() {
+            try {
+                state.put(WATERMARK_STATE, Map.of("position", position.toString()), null);
+                this.saved = Instant.now();
+            } catch (Exception e) {
+                logger.warn("Unable to save the watermark {}", position, e);
+            }
+        }
+
+        /**
+         * The range failed midway: read it again from the same position, without emitting its rows in the overlap twice.
+         */
+        void retry() {
+            emitted.putAll(range.seen);
+            this.close();
+        }
+
+        void close() {
+            if (range != null) {
+                range.stream.close();
+                range = null;
+            }
+        }
+    }
+
+    private static class Range {
+        private final QueryStream stream;
+        private final Instant start;
+        private final Instant stop;
+        private final Instant overlapStart;
+        private final Map<String, Instant> seen = new HashMap<>();
+        private boolean hasRows;
+
+        Range(QueryStream stream, Instant start, Instant stop, Instant overlapStart) {
+            this.stream = stream;
+            this.start = start;
+            this.stop = stop;
+            this.overlapStart = overlapStart;
+        }
+    }
+
+    @Builder
+    @Getter
+    public static class Output implements io.kestra.core.models.tasks.Output {
+        @Schema(title = "First row of the batch")
+        private final Map<String, Object> row;
+
+        @Schema(title = "Rows of the batch, up to `batchSize`")
+        private final List<Map<String, Object>> rows;
+
+        @Schema(title = "Number of rows in the batch")
+        private final Integer size;
+    }
+}
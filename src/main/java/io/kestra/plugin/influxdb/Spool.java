@@ -0,0 +1,54 @@
+package io.kestra.plugin.influxdb;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import io.kestra.core.exceptions.IllegalVariableEvaluationException;
+import io.kestra.core.models.annotations.PluginProperty;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.runners.RunContext;
+import io.kestra.plugin.influxdb.utils.BatchWriter;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+@SuperBuilder
+@ToString
+@EqualsAndHashCode
+@Getter
+@NoArgsConstructor
+public class Spool {
+    @Schema(
+        title = "Maximum spool size",
+        description = "Maximum size in bytes of the batches waiting to be replayed; writing blocks above it. Defaults to 256 MiB"
+    )
+    @Builder.Default
+    @PluginProperty(group = "execution")
+    protected Property<Long> maxSize = Property.ofValue(256L * 1024 * 1024);
+
+    @Schema(
+        title = "Maximum wait",
+        description = "How long the task waits at the end for the spooled batches to be written before failing; defaults to 10 minutes"
+    )
+    @Builder.Default
+    @PluginProperty(group = "execution")
+    protected Property<Duration> maxWait = Property.ofValue(Duration.ofMinutes(10));
+
+    @Schema(
+        title = "Retry interval",
+        description = "First delay before replaying a batch after a failure, doubled on each failure up to 30 seconds; defaults to 1 second"
+    )
+    @Builder.Default
+    @PluginProperty(group = "execution")
+    protected Property<Duration> retryInterval = Property.ofValue(Duration.ofSeconds(1));
+
+    protected void apply(RunContext runContext, BatchWriter writer) throws IllegalVariableEvaluationException, IOException {
+        writer.spool(
+            runContext,
+            runContext.render(maxSize).as(Long.class).orElse(256L * 1024 * 1024),
+            runContext.render(retryInterval).as(Duration.class).orElse(Duration.ofSeconds(1)),
+            runContext.render(maxWait).as(Duration.class).orElse(Duration.ofMinutes(10))
+        );
+    }
+}
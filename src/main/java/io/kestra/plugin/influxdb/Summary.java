@@ -0,0 +1,52 @@
+package io.kestra.plugin.influxdb;
+
+import java.util.List;
+
+import io.kestra.core.exceptions.IllegalVariableEvaluationException;
+import io.kestra.core.models.annotations.PluginProperty;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.runners.RunContext;
+import io.kestra.plugin.influxdb.utils.Summaries;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+@SuperBuilder
+@ToString
+@EqualsAndHashCode
+@Getter
+@NoArgsConstructor
+public class Summary {
+    @Schema(
+        title = "Value column",
+        description = "Numeric column summarized; defaults to `_value`. Rows where it isn't numeric are ignored."
+    )
+    @Builder.Default
+    @PluginProperty(group = "main")
+    protected Property<String> valueColumn = Property.ofValue("_value");
+
+    @Schema(
+        title = "Grouping columns",
+        description = "Columns identifying a group; defaults to every column except the value, time (`_time`, `time`) and Flux system columns (`result`, `table`, `_start`, `_stop`), i.e. one group per series. " +
+            "Set it explicitly for InfluxQL queries, whose rows also contain the other fields."
+    )
+    @PluginProperty(group = "advanced")
+    protected Property<List<String>> groupBy;
+
+    @Schema(
+        title = "Quantiles",
+        description = "Quantiles estimated with a t-digest, reported as `p50`, `p95`, ...; defaults to 0.5, 0.95 and 0.99"
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    protected Property<List<Double>> quantiles = Property.ofValue(List.of(0.5, 0.95, 0.99));
+
+    protected Summaries summaries(RunContext runContext) throws IllegalVariableEvaluationException {
+        String rValueColumn = runContext.render(valueColumn).as(String.class).orElse("_value");
+        List<String> rGroupBy = groupBy != null ? runContext.render(groupBy).asList(String.class) : null;
+        List<Double> rQuantiles = runContext.render(quantiles).asList(Double.class);
+
+        return new Summaries(rValueColumn, rGroupBy, rQuantiles.isEmpty() ? List.of(0.5, 0.95, 0.99) : rQuantiles);
+    }
+}
@@ -1,11 +1,11 @@
 package io.kestra.plugin.influxdb;
 
 import java.util.Arrays;
+import java.util.List;
 
 import org.slf4j.Logger;
 
 import com.influxdb.client.InfluxDBClient;
-import com.influxdb.client.WriteApiBlocking;
 import com.influxdb.client.domain.WritePrecision;
 
 import io.kestra.core.models.annotations.Example;
@@ -13,9 +13,12 @@ import io.kestra.core.models.annotations.Metric;
 import io.kestra.core.models.annotations.Plugin;
 import io.kestra.core.models.annotations.PluginProperty;
 import io.kestra.core.models.executions.metrics.Counter;
+import io.kestra.core.models.executions.metrics.Timer;
 import io.kestra.core.models.property.Property;
 import io.kestra.core.models.tasks.RunnableTask;
 import io.kestra.core.runners.RunContext;
+import io.kestra.plugin.influxdb.utils.BatchWriter;
+import io.kestra.plugin.influxdb.utils.Throttle;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotNull;
@@ -32,7 +35,7 @@ import lombok.experimental.SuperBuilder;
 @NoArgsConstructor
 @Schema(
     title = "Write line protocol to InfluxDB",
-    description = "Sends raw InfluxDB line protocol to a bucket/org with configurable timestamp precision (default nanoseconds). Counts and reports written lines."
+    description = "Sends raw InfluxDB line protocol to a bucket/org with configurable timestamp precision (default nanoseconds), in chunks of `chunk` lines optionally shaped by `rateLimit`. Counts and reports written lines."
 )
 @Plugin(
     examples = {
@@ -63,6 +66,17 @@ import lombok.experimental.SuperBuilder;
             type = Counter.TYPE,
             unit = "count",
             description = "The number of records written to InfluxDB"
+        ),
+        @Metric(
+            name = "throttled",
+            type = Timer.TYPE,
+            description = "Time spent waiting for the write rate limit"
+        ),
+        @Metric(
+            name = "spooled",
+            type = Counter.TYPE,
+            unit = "count",
+            description = "The number of chunks spooled while InfluxDB was unavailable, when `spool` is set"
         )
     }
 )
@@ -83,31 +97,73 @@ public class Write extends AbstractTask implements RunnableTask<Write.Output> {
     @PluginProperty(group = "advanced")
     private Property<WritePrecision> precision = Property.ofValue(WritePrecision.NS);
 
+    @Schema(
+        title = "Chunk size per write",
+        description = "Number of lines sent per write request; defaults to 1000"
+    )
+    @Builder.Default
+    @PluginProperty(group = "execution")
+    private Property<Integer> chunk = Property.ofValue(1000);
+
+    @Schema(
+        title = "Write rate limit",
+        description = "Token-bucket limit in points/sec and/or bytes/sec applied before each chunk"
+    )
+    @PluginProperty(group = "execution")
+    private RateLimit rateLimit;
+
+    @Schema(
+        title = "Write spool",
+        description = "When set, chunks failing because InfluxDB is unavailable (connection errors, 429 and 5xx) are spooled to disk and replayed in order, " +
+            "under `rateLimit`, once the server recovers; the task waits up to `maxWait` for them instead of failing."
+    )
+    @PluginProperty(group = "execution")
+    private Spool spool;
+
     @Override
     public Output run(RunContext runContext) throws Exception {
         Logger logger = runContext.logger();
 
         try (
-            InfluxDBClient client = this.connection.client(runContext);
+            InfluxDBClient client = this.client(runContext);
         ) {
-            WriteApiBlocking writeApi = client.getWriteApiBlocking();
             String renderedSource = runContext.render(source).as(String.class).orElseThrow();
             String renderedBucket = runContext.render(bucket).as(String.class).orElseThrow();
             String renderedOrg = runContext.render(org).as(String.class).orElseThrow();
             WritePrecision renderedPrecision = runContext.render(precision).as(WritePrecision.class).orElse(WritePrecision.NS);
+            int renderedChunk = runContext.render(chunk).as(Integer.class).orElse(1000);
+            Throttle throttle = this.rateLimit != null ? this.rateLimit.throttle(runContext, this.connection) : Throttle.NONE;
+            // CRLF sources would otherwise leave a '\r' at the end of each line
+            List<String> lines = Arrays.stream(renderedSource.split("\\r?\\n"))
+                .filter(line -> !line.isBlank())
+                .toList();
+
+            try (BatchWriter writer = new BatchWriter(client.getWriteApiBlocking(), renderedBucket, renderedOrg, renderedPrecision, throttle)) {
+                if (this.spool != null) {
+                    this.spool.apply(runContext, writer);
+                }
 
-            writeApi.writeRecord(renderedBucket, renderedOrg, renderedPrecision, renderedSource);
+                for (int from = 0; from < lines.size(); from += renderedChunk) {
+                    cancellation.throwIfCancelled();
+                    writer.write(lines.subList(from, Math.min(from + renderedChunk, lines.size())));
+                }
+                writer.flush();
 
-            int lineCount = (int) Arrays.stream(renderedSource.split("\n"))
-                .filter(line -> !line.trim().isEmpty())
-                .count();
+                int lineCount = lines.size();
 
-            logger.info("Wrote {} lines of line protocol data to InfluxDB", lineCount);
-            runContext.metric(Counter.of("records", lineCount));
+                logger.info("Wrote {} lines of line protocol data to InfluxDB", lineCount);
+                runContext.metric(Counter.of("records", lineCount));
+                if (throttle != Throttle.NONE) {
+                    runContext.metric(Timer.of("throttled", throttle.waited()));
+                }
+                if (writer.spooled() > 0) {
+                    runContext.metric(Counter.of("spooled", writer.spooled()));
+                }
 
-            return Output.builder()
-                .recordCount(lineCount)
-                .build();
+                return Output.builder()
+                    .recordCount(lineCount)
+                    .build();
+            }
         }
     }
 
@@ -0,0 +1,150 @@
+package io.kestra.plugin.influxdb.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+import com.influxdb.client.WriteApiBlocking;
+import com.influxdb.client.domain.WritePrecision;
+import com.influxdb.exceptions.InfluxException;
+
+import io.kestra.core.runners.RunContext;
+
+/**
+ * Writes batches of line-protocol records to a bucket, going through the configured {@link Throttle}, and through an
+ * optional {@link WriteSpool} when the server is unavailable.
+ */
+public class BatchWriter implements Closeable {
+    private final WriteApiBlocking writeApi;
+    private final String bucket;
+    private final String org;
+    private final WritePrecision precision;
+    private final Throttle throttle;
+    private WriteSpool spool;
+    private Duration maxWait;
+    private volatile Rejections spooledRejections;
+
+    public BatchWriter(WriteApiBlocking writeApi, String bucket, String org, WritePrecision precision, Throttle throttle) {
+        this.writeApi = writeApi;
+        this.bucket = bucket;
+        this.org = org;
+        this.precision = precision;
+        this.throttle = throttle == null ? Throttle.NONE : throttle;
+    }
+
+    /**
+     * Spool the batches failing with a retriable error instead of failing, see {@link WriteSpool}.
+     *
+     * @param maxWait how long {@link #flush()} waits for the spooled batches to be written
+     */
+    public void spool(RunContext runContext, long maxBytes, Duration retryInterval, Duration maxWait) throws IOException {
+        this.spool = new WriteSpool(runContext, maxBytes, retryInterval, lines -> this.send(lines, spooledRejections));
+        this.maxWait = maxWait;
+    }
+
+    public void write(List<String> lines) throws InterruptedException, IOException {
+        write(lines, null);
+    }
+
+    /**
+     * Write the batch; when the server rejects it because of its content, split it in halves recursively to write
+     * every valid record and hand the invalid ones over to {@code rejections}.
+     * With a spool, a batch failing with a retriable error, and every batch after it until the spool is drained, is
+     * spooled and counted as accepted. Other failures (authentication, server errors, timeouts) are propagated.
+     *
+     * @return the number of records accepted by the server
+     */
+    public int write(List<String> lines, Rejections rejections) throws InterruptedException, IOException {
+        return write(lines, rejections, null);
+    }
+
+    /**
+     * Same as {@link #write(List, Rejections)}, {@code rejectedLater} being notified with the number of records of a
+     * spooled batch that were rejected when it was replayed, before {@link #flush()} returns.
+     */
+    public int write(List<String> lines, Rejections rejections, IntConsumer rejectedLater) throws InterruptedException, IOException {
+        if (lines.isEmpty()) {
+            return 0;
+        }
+
+        if (spool == null) {
+            return send(lines, rejections);
+        }
+
+        if (rejections != null) {
+            spooledRejections = rejections;
+        }
+
+        if (!spool.isActive()) {
+            try {
+                return send(lines, rejections);
+            } catch (InfluxException e) {
+                if (!WriteSpool.isRetriable(e)) {
+                    throw e;
+                }
+            }
+        }
+
+        spool.append(lines, rejectedLater);
+        return lines.size();
+    }
+
+    /**
+     * Wait for the spooled batches to be written, see {@link WriteSpool#await(Duration)}.
+     */
+    public void flush() throws InterruptedException {
+        if (spool != null) {
+            spool.await(maxWait);
+        }
+    }
+
+    /**
+     * Number of batches that went through the spool.
+     */
+    public int spooled() {
+        return spool != null ? spool.spooled() : 0;
+    }
+
+    private int send(List<String> lines, Rejections rejections) throws InterruptedException, IOException {
+        if (rejections == null) {
+            throttle.acquire(lines);
+            writeApi.writeRecords(bucket, org, precision, lines);
+            return lines.size();
+        }
+
+        try {
+            throttle.acquire(lines);
+            writeApi.writeRecords(bucket, org, precision, lines);
+            return lines.size();
+        } catch (InfluxException e) {
+            if (!isRejection(e)) {
+                throw e;
+            }
+
+            if (lines.size() == 1) {
+                rejections.add(lines.getFirst(), e.getMessage());
+                return 0;
+            }
+
+            int middle = lines.size() / 2;
+            return send(lines.subList(0, middle), rejections) + send(lines.subList(middle, lines.size()), rejections);
+        }
+    }
+
+    private static boolean isRejection(InfluxException e) {
+        return e.status() == 400 || e.status() == 422;
+    }
+
+    public Throttle throttle() {
+        return throttle;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (spool != null) {
+            spool.close();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package io.kestra.plugin.influxdb.utils;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Cooperative cancellation of a running task: resources register a hook (cancel HTTP calls, close a client) run
+ * once when the task is killed, and loops check {@link #throwIfCancelled()} between units of work.
+ */
+public class Cancellation {
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+    private final List<Runnable> hooks = new CopyOnWriteArrayList<>();
+
+    /**
+     * Register a hook, run immediately when the task was already cancelled.
+     */
+    public void onCancel(Runnable hook) {
+        hooks.add(hook);
+
+        if (cancelled.get() && hooks.remove(hook)) {
+            hook.run();
+        }
+    }
+
+    public void cancel() {
+        if (!cancelled.compareAndSet(false, true)) {
+            return;
+        }
+
+        for (Runnable hook : hooks) {
+            if (hooks.remove(hook)) {
+                try {
+                    hook.run();
+                } catch (RuntimeException ignored) {
+                    // best effort, the other resources must still be released
+                }
+            }
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled.get();
+    }
+
+    public void throwIfCancelled() {
+        if (cancelled.get()) {
+            throw new CancellationException("Task was killed");
+        }
+    }
+}
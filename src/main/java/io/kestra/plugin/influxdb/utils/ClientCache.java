@@ -0,0 +1,144 @@
+package io.kestra.plugin.influxdb.utils;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import com.influxdb.client.InfluxDBClient;
+import com.influxdb.exceptions.InfluxException;
+
+/**
+ * Process-wide cache of InfluxDB clients, so that components evaluated repeatedly (such as polling triggers) keep
+ * their HTTP connections warm instead of creating a client on each evaluation.
+ * <p>
+ * Clients are shared between callers using the same connection settings through a {@link Lease}: a client is only
+ * closed once it is retired, because it was invalidated or not leased for {@link #IDLE_TIMEOUT}, and no lease on it
+ * is still open.
+ */
+public final class ClientCache {
+    static final Duration IDLE_TIMEOUT = Duration.ofMinutes(15);
+
+    private static final Map<String, Entry> CLIENTS = new ConcurrentHashMap<>();
+
+    private ClientCache() {
+        // prevent instantiation
+    }
+
+    /**
+     * Lease the client cached under {@code key}, creating it when there is none; the lease must be closed once the
+     * client isn't used anymore.
+     */
+    public static Lease lease(String key, Supplier<InfluxDBClient> factory) {
+        evictIdle(System.nanoTime());
+
+        while (true) {
+            Entry entry = CLIENTS.computeIfAbsent(key, k -> new Entry(factory.get()));
+            if (entry.acquire()) {
+                return new Lease(key, entry);
+            }
+
+            // retired between the lookup and the acquisition
+            CLIENTS.remove(key, entry);
+        }
+    }
+
+    /**
+     * Whether the failure comes from the transport (connection refused or reset, timeout) rather than from the query,
+     * in which case the cached client may hold broken connections and is worth replacing.
+     */
+    public static boolean isTransportFailure(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof IOException) {
+                return true;
+            }
+            if (cause instanceof InfluxException influx) {
+                // no HTTP status: the request didn't get an answer
+                return influx.status() == 0;
+            }
+        }
+        return false;
+    }
+
+    private static void evictIdle(long now) {
+        CLIENTS.entrySet().removeIf(cached -> cached.getValue().retireIfIdle(now));
+    }
+
+    public static class Lease implements AutoCloseable {
+        private final String key;
+        private final Entry entry;
+        private boolean released;
+
+        private Lease(String key, Entry entry) {
+            this.key = key;
+            this.entry = entry;
+        }
+
+        public InfluxDBClient client() {
+            return entry.client;
+        }
+
+        /**
+         * Stop handing this client out, e.g. after a transport failure; it is closed once every lease is released.
+         */
+        public void invalidate() {
+            CLIENTS.remove(key, entry);
+            entry.retire();
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                entry.release();
+            }
+        }
+    }
+
+    private static class Entry {
+        private final InfluxDBClient client;
+        private int leases;
+        private long lastUsed;
+        private boolean retired;
+
+        Entry(InfluxDBClient client) {
+            this.client = client;
+            this.lastUsed = System.nanoTime();
+        }
+
+        synchronized boolean acquire() {
+            if (retired) {
+                return false;
+            }
+            leases++;
+            lastUsed = System.nanoTime();
+            return true;
+        }
+
+        synchronized void release() {
+            leases--;
+            lastUsed = System.nanoTime();
+            if (retired && leases == 0) {
+                client.close();
+            }
+        }
+
+        synchronized void retire() {
+            if (!retired) {
+                retired = true;
+                if (leases == 0) {
+                    client.close();
+                }
+            }
+        }
+
+        synchronized boolean retireIfIdle(long now) {
+            if (!retired && leases == 0 && now - lastUsed > IDLE_TIMEOUT.toNanos()) {
+                this.retire();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package io.kestra.plugin.influxdb.utils;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming RFC 4180 reader: quoted fields may contain delimiters, doubled quotes and line breaks.
+ * <p>
+ * Records are read character by character through a single reused buffer; each record becomes a map of column name
+ * to value, without the empty values, the columns coming from the first record unless they are given.
+ */
+public class CsvReader {
+    private final Reader reader;
+    private final char delimiter;
+    private final StringBuilder field = new StringBuilder();
+    private final List<String> values = new ArrayList<>();
+    private List<String> columns;
+
+    /**
+     * @param reader a buffered reader
+     * @param columns the column names, or {@code null} to read them from the header record
+     */
+    public CsvReader(Reader reader, char delimiter, List<String> columns) {
+        this.reader = reader;
+        this.delimiter = delimiter;
+        this.columns = columns;
+    }
+
+    /**
+     * @return the next record, or {@code null} at the end of the input
+     */
+    public Map<String, Object> next() throws IOException {
+        if (columns == null) {
+            List<String> header = this.record();
+            if (header == null) {
+                return null;
+            }
+
+            if (!header.isEmpty() && header.getFirst().startsWith("\uFEFF")) {
+                header.set(0, header.getFirst().substring(1));
+            }
+            columns = List.copyOf(header);
+        }
+
+        List<String> record;
+        do {
+            record = this.record();
+            if (record == null) {
+                return null;
+            }
+        } while (record.size() == 1 && record.getFirst().isEmpty());
+
+        Map<String, Object> row = new HashMap<>(columns.size() * 2);
+        for (int i = 0; i < Math.min(columns.size(), record.size()); i++) {
+            String value = record.get(i);
+            if (!value.isEmpty()) {
+                row.put(columns.get(i), value);
+            }
+        }
+        return row;
+    }
+
+    private List<String> record() throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+
+        values.clear();
+        field.setLength(0);
+        boolean quoted = false;
+
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("Unterminated quoted field in record " + values);
+                }
+
+                if (c == '"') {
+                    c = reader.read();
+                    if (c != '"') {
+                        quoted = false;
+                        continue;
+                    }
+                }
+                field.append((char) c);
+            } else if (c == -1 || c == '\n') {
+                values.add(field.toString());
+                return values;
+            } else if (c == delimiter) {
+                values.add(field.toString());
+                field.setLength(0);
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+
+            c = reader.read();
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package io.kestra.plugin.influxdb.utils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okio.Buffer;
+
+/**
+ * Spread read-only queries over several replicas of the same InfluxDB data, while every other request (writes,
+ * management, Flux scripts writing with {@code to()}, InfluxQL statements other than {@code SELECT} and {@code SHOW})
+ * goes to the primary endpoint, the first one of the list.
+ * <p>
+ * An endpoint failing with an I/O error or a 5xx status is ejected for the ejection duration and the request is
+ * retried on the next endpoint; once the duration has elapsed, the endpoint is probed with {@code /ping} before it
+ * receives queries again. A 5xx reporting an error in the query itself is returned as is, since every replica would
+ * fail the same way. The health of each endpoint is shared by all the clients of the worker.
+ */
+public class Endpoints implements Interceptor {
+    private static final Map<String, Health> HEALTH = new ConcurrentHashMap<>();
+    private static final double LATENCY_WEIGHT = 0.3;
+    private static final long MAX_QUERY_BYTES = 1024 * 1024;
+
+    // calls of functions with side effects, such as to(), experimental.to(), influxdb.wideTo() or http.post()
+    private static final Pattern FLUX_SIDE_EFFECT = Pattern.compile("\\b(to|wideTo|post)\\s*\\(");
+    private static final Pattern INFLUXQL_READ = Pattern.compile("(?is)^\\s*(SELECT|SHOW|EXPLAIN)\\b.*");
+    private static final Pattern INFLUXQL_INTO = Pattern.compile("(?i)\\bINTO\\b");
+    private static final List<String> QUERY_ERRORS = List.of("compil", "error @", "error parsing", "type error", "undefined identifier");
+
+    private final List<HttpUrl> endpoints;
+    private final String primaryPath;
+    private final Strategy strategy;
+    private final Duration ejection;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public Endpoints(List<String> urls, Strategy strategy, Duration ejection) {
+        this.endpoints = urls.stream().map(HttpUrl::get).toList();
+        this.primaryPath = basePath(this.endpoints.getFirst());
+        this.strategy = strategy;
+        this.ejection = ejection;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        if (!isReadOnly(request)) {
+            return chain.proceed(request);
+        }
+
+        List<HttpUrl> candidates = this.candidates();
+        IOException failure = null;
+
+        for (int i = 0; i < candidates.size(); i++) {
+            HttpUrl endpoint = candidates.get(i);
+            Health health = health(endpoint);
+            boolean last = i == candidates.size() - 1;
+
+            if (health.ejectionElapsed() && !this.probe(chain, endpoint, health) && !last) {
+                continue;
+            }
+
+            long started = System.nanoTime();
+            try {
+                Response response = chain.proceed(request.newBuilder().url(this.rewrite(request.url(), endpoint)).build());
+
+                if (response.code() < 500 || last || isQueryError(response)) {
+                    if (response.code() < 500) {
+                        health.succeeded(System.nanoTime() - started);
+                    }
+                    return response;
+                }
+
+                response.close();
+                health.eject(this.ejection);
+            } catch (IOException e) {
+                if (chain.call().isCanceled()) {
+                    throw e;
+                }
+
+                health.eject(this.ejection);
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+
+        throw failure != null ? failure : new IOException("No InfluxDB endpoint available");
+    }
+
+    /**
+     * Endpoints in the order they must be tried: healthy ones and the ones to re-probe first, according to the
+     * strategy, then ejected ones as a last resort so that a request still has a chance when every endpoint was ejected.
+     */
+    List<HttpUrl> candidates() {
+        List<HttpUrl> healthy = new ArrayList<>();
+        List<HttpUrl> ejected = new ArrayList<>();
+
+        for (HttpUrl endpoint : this.endpoints) {
+            Health health = health(endpoint);
+            (health.isEjected() && !health.ejectionElapsed() ? ejected : healthy).add(endpoint);
+        }
+
+        if (this.strategy == Strategy.LEAST_LATENCY) {
+            healthy.sort(Comparator.comparingDouble(endpoint -> health(endpoint).latency));
+        } else if (!healthy.isEmpty()) {
+            int offset = Math.floorMod(this.next.getAndIncrement(), healthy.size());
+            List<HttpUrl> rotated = new ArrayList<>(healthy.subList(offset, healthy.size()));
+            rotated.addAll(healthy.subList(0, offset));
+            healthy = rotated;
+        }
+
+        ejected.sort(Comparator.comparingLong(endpoint -> health(endpoint).ejectedUntil));
+        healthy.addAll(ejected);
+        return healthy;
+    }
+
+    private boolean probe(Chain chain, HttpUrl endpoint, Health health) {
+        Request ping = new Request.Builder()
+            .url(endpoint.newBuilder().encodedPath(basePath(endpoint) + "/ping").build())
+            .get()
+            .build();
+
+        try (Response response = chain.proceed(ping)) {
+            if (response.isSuccessful()) {
+                health.reinstate();
+                return true;
+            }
+        } catch (IOException e) {
+            // still unavailable
+        }
+
+        health.eject(this.ejection);
+        return false;
+    }
+
+    /**
+     * Whether the request is a query known to only read data: a Flux script without side-effect function calls, or
+     * InfluxQL {@code SELECT} (without {@code INTO}), {@code SHOW} and {@code EXPLAIN} statements. Anything that can't
+     * be inspected is considered a write.
+     */
+    static boolean isReadOnly(Request request) throws IOException {
+        String path = request.url().encodedPath();
+
+        if (path.endsWith("/api/v2/query")) {
+            String body = body(request);
+            return body != null && !FLUX_SIDE_EFFECT.matcher(body).find();
+        }
+
+        if (path.endsWith("/query")) {
+            String query = request.url().queryParameter("q");
+            if (query == null) {
+                String body = body(request);
+                HttpUrl form = body != null ? HttpUrl.parse("http://localhost/?" + body) : null;
+                query = form != null ? form.queryParameter("q") : null;
+            }
+
+            if (query == null || query.isBlank()) {
+                return false;
+            }
+
+            for (String statement : query.split(";")) {
+                if (!statement.isBlank() && (!INFLUXQL_READ.matcher(statement).matches() || INFLUXQL_INTO.matcher(statement).find())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        return false;
+    }
+
+    private static String body(Request request) throws IOException {
+        RequestBody body = request.body();
+        if (body == null || body.isOneShot() || body.isDuplex() || body.contentLength() > MAX_QUERY_BYTES) {
+            return null;
+        }
+
+        Buffer buffer = new Buffer();
+        body.writeTo(buffer);
+        return buffer.readString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Whether a 5xx response reports an error in the query (compilation, type or parsing error), which the other
+     * replicas would report as well, rather than a failure of the server.
+     */
+    private static boolean isQueryError(Response response) throws IOException {
+        String body = response.peekBody(8192).string().toLowerCase(Locale.ROOT);
+        return QUERY_ERRORS.stream().anyMatch(body::contains);
+    }
+
+    /**
+     * Move the request to the endpoint, keeping the path relative to the base path of the primary endpoint under the
+     * base path of the target endpoint, so that servers behind a path prefix are supported.
+     */
+    HttpUrl rewrite(HttpUrl url, HttpUrl endpoint) {
+        String path = url.encodedPath();
+        if (path.startsWith(this.primaryPath)) {
+            path = path.substring(this.primaryPath.length());
+        }
+
+        return url.newBuilder()
+            .scheme(endpoint.scheme())
+            .host(endpoint.host())
+            .port(endpoint.port())
+            .encodedPath(basePath(endpoint) + path)
+            .build();
+    }
+
+    private static String basePath(HttpUrl endpoint) {
+        String path = endpoint.encodedPath();
+        return path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+    }
+
+    private static Health health(HttpUrl endpoint) {
+        return HEALTH.computeIfAbsent(endpoint.scheme() + "://" + endpoint.host() + ":" + endpoint.port(), k -> new Health());
+    }
+
+    public enum Strategy {
+        ROUND_ROBIN,
+        LEAST_LATENCY
+    }
+
+    private static class Health {
+        private volatile long ejectedUntil;
+        private volatile boolean ejected;
+        private volatile double latency;
+
+        boolean isEjected() {
+            return ejected;
+        }
+
+        boolean ejectionElapsed() {
+            return ejected && System.nanoTime() - ejectedUntil >= 0;
+        }
+
+        void eject(Duration duration) {
+            this.ejectedUntil = System.nanoTime() + duration.toNanos();
+            this.ejected = true;
+        }
+
+        void reinstate() {
+            this.ejected = false;
+        }
+
+        void succeeded(long nanos) {
+            this.ejected = false;
+            this.latency = latency == 0 ? nanos : latency + LATENCY_WEIGHT * (nanos - latency);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package io.kestra.plugin.influxdb.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Bounded, time-expiring set of row fingerprints.
+ * <p>
+ * A fingerprint is a 64-bit digest of the key columns of a row; fingerprints expire {@code ttl} after they were first
+ * seen, and the oldest ones are evicted first when there are more than {@code maxSize}.
+ */
+public class Fingerprints {
+    private static final Set<String> NON_KEY_COLUMNS = Set.of("result", "table", "_start", "_stop");
+
+    private final List<String> keyColumns;
+    private final Duration ttl;
+    private final int maxSize;
+    private final LinkedHashMap<String, Long> seen = new LinkedHashMap<>();
+
+    /**
+     * @param state fingerprints previously returned by {@link #state()}, mapped to their first-seen epoch millis
+     * @param keyColumns columns identifying a row; every column except the Flux system ones when {@code null}
+     */
+    public Fingerprints(Map<String, ?> state, List<String> keyColumns, Duration ttl, int maxSize, Instant now) {
+        this.keyColumns = keyColumns;
+        this.ttl = ttl;
+        this.maxSize = maxSize;
+
+        long expired = now.minus(ttl).toEpochMilli();
+        state.entrySet().stream()
+            .filter(entry -> entry.getValue() instanceof Number)
+            .map(entry -> Map.entry(entry.getKey(), ((Number) entry.getValue()).longValue()))
+            .filter(entry -> entry.getValue() > expired)
+            .sorted(Map.Entry.comparingByValue())
+            .forEach(entry -> seen.put(entry.getKey(), entry.getValue()));
+    }
+
+    /**
+     * @return {@code true} when the row wasn't seen yet
+     */
+    public boolean add(Map<String, Object> row, Instant now) {
+        if (seen.putIfAbsent(fingerprint(row), now.toEpochMilli()) != null) {
+            return false;
+        }
+
+        Iterator<String> oldest = seen.keySet().iterator();
+        while (seen.size() > maxSize) {
+            oldest.next();
+            oldest.remove();
+        }
+
+        return true;
+    }
+
+    public Map<String, Object> state() {
+        return new LinkedHashMap<>(seen);
+    }
+
+    public Duration ttl() {
+        return ttl;
+    }
+
+    String fingerprint(Map<String, Object> row) {
+        SortedMap<String, Object> key = new TreeMap<>();
+        if (keyColumns != null) {
+            keyColumns.forEach(column -> key.put(column, row.get(column)));
+        } else {
+            row.forEach((column, value) ->
+            {
+                if (!NON_KEY_COLUMNS.contains(column)) {
+                    key.put(column, value);
+                }
+            });
+        }
+
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
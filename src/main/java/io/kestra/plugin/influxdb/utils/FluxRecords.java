@@ -0,0 +1,82 @@
+package io.kestra.plugin.influxdb.utils;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import com.influxdb.client.domain.WritePrecision;
+import com.influxdb.client.write.Point;
+import com.influxdb.query.FluxRecord;
+
+public class FluxRecords {
+    private static final Set<String> RESERVED_COLUMNS = Set.of("result", "table");
+
+    private FluxRecords() {
+        // prevent instantiation
+    }
+
+    /**
+     * Row view of a record, without {@code null} values.
+     */
+    public static Map<String, Object> toRow(FluxRecord record) {
+        Map<String, Object> row = new HashMap<>();
+        record.getValues().forEach((key, value) ->
+        {
+            if (value != null) {
+                row.put(key, value);
+            }
+        });
+        return row;
+    }
+
+    /**
+     * Convert an un-pivoted Flux record ({@code _measurement}, {@code _field}, {@code _value}, {@code _time}) back into a point.
+     * Every column that is not prefixed by an underscore and is not a Flux system column is treated as a tag.
+     *
+     * @param record the record returned by the query API
+     * @param measurement measurement override, the record's {@code _measurement} is used when {@code null}
+     * @return the point to write
+     */
+    public static Point toPoint(FluxRecord record, String measurement) {
+        String rMeasurement = measurement != null ? measurement : record.getMeasurement();
+        String field = record.getField();
+        Object value = record.getValue();
+
+        if (rMeasurement == null || field == null) {
+            throw new IllegalArgumentException(
+                "Record must contain `_measurement` and `_field` columns, got " + record.getValues().keySet() +
+                    "; pivoted results can't be converted back to points"
+            );
+        }
+
+        Point point = Point.measurement(rMeasurement);
+
+        for (Map.Entry<String, Object> entry : record.getValues().entrySet()) {
+            String key = entry.getKey();
+            if (key.startsWith("_") || RESERVED_COLUMNS.contains(key) || entry.getValue() == null) {
+                continue;
+            }
+
+            point.addTag(key, entry.getValue().toString());
+        }
+
+        switch (value) {
+            case Double d -> point.addField(field, d);
+            case Float f -> point.addField(field, f.doubleValue());
+            case Long l -> point.addField(field, l);
+            case Integer i -> point.addField(field, i.longValue());
+            case Number n -> point.addField(field, n);
+            case Boolean b -> point.addField(field, b);
+            case null -> throw new IllegalArgumentException("Record has no `_value` for field '" + field + "'");
+            default -> point.addField(field, value.toString());
+        }
+
+        Instant time = record.getTime();
+        if (time != null) {
+            point.time(time, WritePrecision.NS);
+        }
+
+        return point;
+    }
+}
@@ -0,0 +1,129 @@
+package io.kestra.plugin.influxdb.utils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Generates Flux restricted to the patterns InfluxDB pushes down to the storage engine: {@code from}, {@code range},
+ * then {@code filter} predicates on the measurement, tags and fields, then {@code aggregateWindow} and {@code pivot}.
+ */
+public class FluxScript {
+    private static final Pattern DURATION = Pattern.compile("-?(\\d+(ns|us|µs|ms|s|mo|m|h|d|w|y))+");
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
+    private final StringBuilder flux = new StringBuilder();
+
+    private FluxScript(String bucket) {
+        flux.append("from(bucket: ").append(string(bucket)).append(")");
+    }
+
+    public static FluxScript from(String bucket) {
+        return new FluxScript(bucket);
+    }
+
+    /**
+     * @param start a relative duration ({@code -1h}) or an absolute time (RFC3339)
+     * @param stop same as {@code start}, {@code null} for now
+     */
+    public FluxScript range(String start, String stop) {
+        flux.append("\n  |> range(start: ").append(time(start));
+        if (stop != null) {
+            flux.append(", stop: ").append(time(stop));
+        }
+        flux.append(")");
+        return this;
+    }
+
+    /**
+     * Keep records whose {@code column} equals one of {@code values}; nothing is added when {@code values} is empty.
+     */
+    public FluxScript filter(String column, Collection<?> values) {
+        if (values.isEmpty()) {
+            return this;
+        }
+
+        StringJoiner predicate = new StringJoiner(" or ");
+        for (Object value : values) {
+            predicate.add(column(column) + " == " + string(String.valueOf(value)));
+        }
+
+        flux.append("\n  |> filter(fn: (r) => ").append(predicate).append(")");
+        return this;
+    }
+
+    public FluxScript append(String stage) {
+        flux.append("\n  |> ").append(stage);
+        return this;
+    }
+
+    public FluxScript pivot() {
+        return append("pivot(rowKey: [\"_time\"], columnKey: [\"_field\"], valueColumn: \"_value\")");
+    }
+
+    public static String aggregateWindow(Duration every, Function fn, boolean createEmpty) {
+        if (every.isZero() || every.isNegative()) {
+            throw new IllegalArgumentException("Aggregate window `every` must be positive, got " + every);
+        }
+
+        return "aggregateWindow(every: " + duration(every) + ", fn: " + fn.name().toLowerCase(Locale.ROOT) + ", createEmpty: " + createEmpty + ")";
+    }
+
+    @Override
+    public String toString() {
+        return flux.toString();
+    }
+
+    static String string(String value) {
+        StringBuilder builder = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"', '\\' -> builder.append('\\').append(c);
+                case '\n' -> builder.append("\\n");
+                case '\r' -> builder.append("\\r");
+                case '\t' -> builder.append("\\t");
+                case '$' -> builder.append(i + 1 < value.length() && value.charAt(i + 1) == '{' ? "\\$" : "$");
+                default -> builder.append(c);
+            }
+        }
+        return builder.append('"').toString();
+    }
+
+    static String duration(Duration duration) {
+        long nanos = duration.toNanos();
+        if (nanos % 1_000_000_000L == 0) {
+            return (nanos / 1_000_000_000L) + "s";
+        }
+        return nanos + "ns";
+    }
+
+    private static String column(String name) {
+        return IDENTIFIER.matcher(name).matches() ? "r." + name : "r[" + string(name) + "]";
+    }
+
+    private static String time(String value) {
+        String trimmed = value.trim();
+        if (DURATION.matcher(trimmed).matches()) {
+            return trimmed;
+        }
+
+        try {
+            return Instant.parse(trimmed).toString();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid range bound '" + value + "', expected a duration like `-1h` or an RFC3339 time", e);
+        }
+    }
+
+    public enum Function {
+        MEAN,
+        MIN,
+        MAX,
+        SUM,
+        COUNT,
+        FIRST,
+        LAST
+    }
+}
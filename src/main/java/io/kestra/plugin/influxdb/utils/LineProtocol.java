@@ -0,0 +1,125 @@
+package io.kestra.plugin.influxdb.utils;
+
+import com.influxdb.client.domain.WritePrecision;
+import com.influxdb.client.write.Point;
+
+public class LineProtocol {
+    private LineProtocol() {
+        // prevent instantiation
+    }
+
+    /**
+     * Encode a point as a line-protocol record with a nanosecond timestamp, whatever the precision it was built with,
+     * so records from different points can be written in a single {@link WritePrecision#NS} request.
+     *
+     * @return the record, or an empty string when the point has no field
+     */
+    public static String encode(Point point) {
+        if (point.getTime() != null && point.getPrecision() != WritePrecision.NS) {
+            long multiplier = switch (point.getPrecision()) {
+                case S -> 1_000_000_000L;
+                case MS -> 1_000_000L;
+                case US -> 1_000L;
+                case NS -> 1L;
+            };
+            point.time(point.getTime().longValue() * multiplier, WritePrecision.NS);
+        }
+
+        return point.toLineProtocol();
+    }
+
+    /**
+     * Append a field value with the types {@link Point} gives it: floats (in the shortest form of {@link Double#toString},
+     * which InfluxDB parses with or without an exponent), other numbers as integers with the {@code i} suffix, booleans
+     * as they are and anything else as a quoted string.
+     *
+     * @return {@code false}, with nothing appended, for a {@code NaN} or infinite float, which {@link Point} drops too
+     */
+    public static boolean appendField(StringBuilder sb, Object value) {
+        switch (value) {
+            case Double d when d.isNaN() || d.isInfinite() -> {
+                return false;
+            }
+            case Float f when f.isNaN() || f.isInfinite() -> {
+                return false;
+            }
+            case Double d -> sb.append(d.doubleValue());
+            case Float f -> sb.append(f.floatValue());
+            case Number n -> sb.append(n).append('i');
+            case Boolean b -> sb.append(b.booleanValue());
+            default -> {
+                String raw = value.toString();
+                sb.append('"');
+                for (int i = 0; i < raw.length(); i++) {
+                    char c = raw.charAt(i);
+                    if (c == '\\' || c == '"') {
+                        sb.append('\\');
+                    }
+                    sb.append(c);
+                }
+                sb.append('"');
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Append a nanosecond timestamp to a record that has none, as {@link Point#time} does for an encoded point.
+     */
+    public static String withTime(String line, long nanos) {
+        if (line.isEmpty() || timestamp(line, seriesEnd(line)) != Long.MIN_VALUE) {
+            return line;
+        }
+
+        return line + ' ' + nanos;
+    }
+
+    /**
+     * Trailing timestamp of the record, or {@link Long#MIN_VALUE} when the server assigns it.
+     */
+    public static long timestamp(String line, int seriesEnd) {
+        int start = line.lastIndexOf(' ');
+        if (start <= seriesEnd || start == line.length() - 1) {
+            return Long.MIN_VALUE;
+        }
+
+        for (int i = start + 1; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if ((c < '0' || c > '9') && !(c == '-' && i == start + 1)) {
+                return Long.MIN_VALUE;
+            }
+        }
+
+        try {
+            return Long.parseLong(line, start + 1, line.length(), 10);
+        } catch (NumberFormatException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+
+    /**
+     * Index of the first unescaped space, which ends the series key (measurement and tag set).
+     */
+    public static int seriesEnd(String line) {
+        return unescaped(line, ' ', ' ', line.length());
+    }
+
+    /**
+     * Index of the first unescaped comma or space, which ends the measurement.
+     */
+    public static int measurementEnd(String line, int seriesEnd) {
+        return unescaped(line, ',', ' ', seriesEnd);
+    }
+
+    private static int unescaped(String line, char first, char second, int end) {
+        for (int i = 0; i < end; i++) {
+            char c = line.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == first || c == second) {
+                return i;
+            }
+        }
+        return end;
+    }
+}
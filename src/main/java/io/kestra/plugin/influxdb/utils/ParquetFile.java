@@ -0,0 +1,167 @@
+package io.kestra.plugin.influxdb.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.hadoop.ParquetFileWriter;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.codec.ZstandardCodec;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.io.LocalOutputFile;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Type;
+import org.apache.parquet.schema.Types;
+
+import io.kestra.plugin.influxdb.AbstractQuery.Compression;
+
+/**
+ * Parquet file of query rows, with one typed column per row key.
+ * <p>
+ * The schema is taken from the first row: the client decodes each value according to the {@code #datatype} annotation
+ * of its column, so {@code long} and {@code unsignedLong} become {@code INT64}, {@code double} {@code DOUBLE},
+ * {@code boolean} {@code BOOLEAN}, {@code dateTime} a nanosecond {@code TIMESTAMP} and the other types a
+ * {@code STRING}, dictionary-encoded so that repeated tag values are stored once per row group. Every column is
+ * optional since rows don't hold {@code null} values; a row with a column that isn't in the schema, or with another
+ * type, is rejected by {@link #accepts(Map)} and must go to a new file.
+ */
+public class ParquetFile implements Closeable {
+    // names of the Hadoop zlib compression levels from 1 to 9, read by the gzip codec from "zlib.compress.level"
+    private static final String[] GZIP_LEVELS = {
+        "BEST_SPEED", "TWO", "THREE", "FOUR", "FIVE", "SIX", "SEVEN", "EIGHT", "BEST_COMPRESSION"
+    };
+
+    private final Map<String, ColumnType> columns;
+    private final SimpleGroupFactory groups;
+    private final ParquetWriter<Group> writer;
+
+    /**
+     * @param compression the codec compressing the pages
+     * @param level the level of the codec, from 1 to 9 for gzip and from 1 to 19 for zstd
+     */
+    public ParquetFile(Path path, Map<String, Object> first, Compression compression, int level, long rowGroupSize) throws IOException {
+        this.columns = new TreeMap<>();
+        first.forEach((key, value) -> columns.put(key, ColumnType.of(value)));
+
+        Types.MessageTypeBuilder schema = Types.buildMessage();
+        columns.forEach((name, type) -> schema.addField(type.field(name)));
+        MessageType messageType = schema.named("row");
+
+        Configuration conf = new Configuration();
+        CompressionCodecName codec = switch (compression) {
+            case NONE -> CompressionCodecName.UNCOMPRESSED;
+            case GZIP -> {
+                conf.set("zlib.compress.level", GZIP_LEVELS[level - 1]);
+                yield CompressionCodecName.GZIP;
+            }
+            case ZSTD -> {
+                conf.setInt(ZstandardCodec.PARQUET_COMPRESS_ZSTD_LEVEL, level);
+                yield CompressionCodecName.ZSTD;
+            }
+        };
+
+        this.groups = new SimpleGroupFactory(messageType);
+        this.writer = ExampleParquetWriter.builder(new LocalOutputFile(path))
+            .withConf(conf)
+            .withType(messageType)
+            .withCompressionCodec(codec)
+            .withDictionaryEncoding(true)
+            .withRowGroupSize(rowGroupSize)
+            .withWriteMode(ParquetFileWriter.Mode.OVERWRITE)
+            .build();
+    }
+
+    /**
+     * Whether the row fits the schema of this file.
+     */
+    public boolean accepts(Map<String, Object> row) {
+        for (Map.Entry<String, Object> entry : row.entrySet()) {
+            if (columns.get(entry.getKey()) != ColumnType.of(entry.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void write(Map<String, Object> row) throws IOException {
+        Group group = groups.newGroup();
+
+        row.forEach((key, value) ->
+        {
+            switch (columns.get(key)) {
+                case LONG -> group.append(key, ((Number) value).longValue());
+                case DOUBLE -> group.append(key, ((Number) value).doubleValue());
+                case BOOLEAN -> group.append(key, (Boolean) value);
+                case TIMESTAMP -> {
+                    Instant instant = (Instant) value;
+                    group.append(key, instant.getEpochSecond() * 1_000_000_000L + instant.getNano());
+                }
+                case BINARY -> group.append(key, Binary.fromConstantByteArray((byte[]) value));
+                case STRING -> group.append(key, value.toString());
+            }
+        });
+
+        writer.write(group);
+    }
+
+    /**
+     * Number of bytes written to the file plus the ones buffered for the current row group.
+     */
+    public long size() {
+        return writer.getDataSize();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private enum ColumnType {
+        LONG,
+        DOUBLE,
+        BOOLEAN,
+        TIMESTAMP,
+        BINARY,
+        STRING;
+
+        static ColumnType of(Object value) {
+            return switch (value) {
+                case Long l -> LONG;
+                case Integer i -> LONG;
+                case Short s -> LONG;
+                case Byte b -> LONG;
+                case Double d -> DOUBLE;
+                case Float f -> DOUBLE;
+                case Boolean b -> BOOLEAN;
+                case Instant t -> TIMESTAMP;
+                case byte[] bytes -> BINARY;
+                default -> STRING;
+            };
+        }
+
+        Type field(String name) {
+            return switch (this) {
+                case LONG -> Types.optional(PrimitiveTypeName.INT64).named(name);
+                case DOUBLE -> Types.optional(PrimitiveTypeName.DOUBLE).named(name);
+                case BOOLEAN -> Types.optional(PrimitiveTypeName.BOOLEAN).named(name);
+                case TIMESTAMP -> Types.optional(PrimitiveTypeName.INT64)
+                    .as(LogicalTypeAnnotation.timestampType(true, LogicalTypeAnnotation.TimeUnit.NANOS))
+                    .named(name);
+                case BINARY -> Types.optional(PrimitiveTypeName.BINARY).named(name);
+                case STRING -> Types.optional(PrimitiveTypeName.BINARY)
+                    .as(LogicalTypeAnnotation.stringType())
+                    .named(name);
+            };
+        }
+    }
+}
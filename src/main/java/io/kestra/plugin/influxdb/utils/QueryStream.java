@@ -0,0 +1,167 @@
+package io.kestra.plugin.influxdb.utils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.influxdb.Cancellable;
+import com.influxdb.client.QueryApi;
+import com.influxdb.client.domain.Dialect;
+import com.influxdb.client.domain.Query;
+import com.influxdb.query.FluxRecord;
+
+/**
+ * Pull-based view over the asynchronous streaming Flux query API.
+ * <p>
+ * Records are handed over through a bounded queue: when the consumer is slower than the server, the HTTP thread
+ * blocks, which stops reading from the socket and propagates backpressure up to InfluxDB.
+ */
+public class QueryStream implements Iterator<FluxRecord>, AutoCloseable {
+    public static final Dialect DIALECT = new Dialect()
+        .header(true)
+        .delimiter(",")
+        .commentPrefix("#")
+        .annotations(Arrays.asList(Dialect.AnnotationsEnum.DATATYPE, Dialect.AnnotationsEnum.GROUP, Dialect.AnnotationsEnum.DEFAULT));
+
+    private static final Object END = new Object();
+
+    private final BlockingQueue<Object> queue;
+    private volatile Cancellable cancellable;
+    private volatile boolean closed;
+    private Object next;
+
+    private QueryStream(int bufferSize) {
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, bufferSize));
+    }
+
+    /**
+     * Build a Flux {@link Query} with the dialect used by the client for annotated CSV parsing.
+     */
+    public static Query query(String flux) {
+        return query(flux, null);
+    }
+
+    /**
+     * Build a parameterized Flux {@link Query}, the parameters being referenced as {@code params.name} in the query.
+     */
+    public static Query query(String flux, Map<String, Object> params) {
+        Query query = new Query().query(flux).dialect(DIALECT);
+        if (params != null && !params.isEmpty()) {
+            query.params(params);
+        }
+        return query;
+    }
+
+    /**
+     * Start the query and return a stream buffering at most {@code bufferSize} records.
+     */
+    public static QueryStream open(QueryApi queryApi, Query query, String org, int bufferSize) {
+        QueryStream stream = new QueryStream(bufferSize);
+
+        queryApi.query(
+            query,
+            org,
+            (cancellable, record) ->
+            {
+                stream.cancellable = cancellable;
+                stream.push(record);
+            },
+            throwable -> stream.push(new Failure(throwable)),
+            () -> stream.push(END)
+        );
+
+        return stream;
+    }
+
+    /**
+     * Sequential {@link Stream} view of the remaining records.
+     */
+    public Stream<FluxRecord> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED), false);
+    }
+
+    /**
+     * Number of records received from the server and not yet consumed.
+     */
+    public int buffered() {
+        return queue.size();
+    }
+
+    private void push(Object item) {
+        try {
+            while (!closed) {
+                if (queue.offer(item, 100, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        cancelUpstream();
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            try {
+                next = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                close();
+                throw new IllegalStateException("Interrupted while waiting for query results", e);
+            }
+        }
+
+        if (next instanceof Failure failure) {
+            throw failure.unchecked();
+        }
+
+        return next != END;
+    }
+
+    @Override
+    public FluxRecord next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        FluxRecord record = (FluxRecord) next;
+        next = null;
+        return record;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        cancelUpstream();
+        queue.clear();
+    }
+
+    private void cancelUpstream() {
+        Cancellable current = this.cancellable;
+        if (current != null && !current.isCancelled()) {
+            current.cancel();
+        }
+    }
+
+    private record Failure(Throwable cause) {
+        RuntimeException unchecked() {
+            return switch (cause) {
+                case RuntimeException e -> e;
+                case IOException e -> new UncheckedIOException(e);
+                default -> new IllegalStateException(cause.getMessage(), cause);
+            };
+        }
+    }
+}
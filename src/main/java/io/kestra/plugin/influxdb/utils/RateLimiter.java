@@ -0,0 +1,59 @@
+package io.kestra.plugin.influxdb.utils;
+
+/**
+ * Token bucket refilled continuously at a fixed rate, holding at most one second worth of permits.
+ * <p>
+ * Reservations may overdraw the bucket: the caller is told how long to wait for the debt to be repaid, so a batch
+ * larger than the bucket is delayed proportionally to its size instead of being rejected, and concurrent callers are
+ * spaced out in reservation order.
+ */
+public class RateLimiter {
+    private final double permitsPerNano;
+    private final double capacity;
+    private double available;
+    private long lastRefill;
+    private long lastUsed;
+
+    public RateLimiter(double permitsPerSecond) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("Rate must be positive, got " + permitsPerSecond);
+        }
+
+        this.permitsPerNano = permitsPerSecond / 1_000_000_000D;
+        this.capacity = permitsPerSecond;
+        this.available = permitsPerSecond;
+        this.lastRefill = System.nanoTime();
+        this.lastUsed = this.lastRefill;
+    }
+
+    /**
+     * Take {@code permits} from the bucket.
+     *
+     * @return the number of nanoseconds the caller must wait before using the permits
+     */
+    public synchronized long reserve(long permits) {
+        long now = System.nanoTime();
+        available = Math.min(capacity, available + (now - lastRefill) * permitsPerNano);
+        lastRefill = now;
+        lastUsed = now;
+        available -= permits;
+
+        return available >= 0 ? 0 : (long) Math.ceil(-available / permitsPerNano);
+    }
+
+    /**
+     * Mark the bucket as used, e.g. when it is handed out to a new caller.
+     */
+    public synchronized RateLimiter touch() {
+        lastUsed = System.nanoTime();
+        return this;
+    }
+
+    /**
+     * Whether the bucket wasn't used for {@code timeoutNanos} and has no debt left, so that dropping it and later starting
+     * a new one doesn't let any extra permits through.
+     */
+    public synchronized boolean isIdle(long now, long timeoutNanos) {
+        return now - lastUsed > timeoutNanos && available + (now - lastRefill) * permitsPerNano >= capacity;
+    }
+}
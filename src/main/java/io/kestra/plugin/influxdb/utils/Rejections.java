@@ -0,0 +1,63 @@
+package io.kestra.plugin.influxdb.utils;
+
+import java.io.*;
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.serializers.FileSerde;
+
+/**
+ * Thread-safe sink for line-protocol records rejected by the server, written as `{line, error}` ION objects to a
+ * working directory file created on the first rejection.
+ */
+public class Rejections implements Closeable {
+    private final RunContext runContext;
+    private File file;
+    private OutputStream output;
+    private int count;
+
+    public Rejections(RunContext runContext) {
+        this.runContext = runContext;
+    }
+
+    public synchronized void add(String line, String error) throws IOException {
+        if (output == null) {
+            file = runContext.workingDir().createTempFile(".ion").toFile();
+            output = new BufferedOutputStream(new FileOutputStream(file), FileSerde.BUFFER_SIZE);
+        }
+
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("line", line);
+        row.put("error", error);
+        FileSerde.write(output, row);
+        count++;
+    }
+
+    public synchronized int count() {
+        return count;
+    }
+
+    /**
+     * Upload the rejected records to internal storage.
+     *
+     * @return the file URI, or {@code null} when nothing was rejected
+     */
+    public synchronized URI store() throws IOException {
+        if (file == null) {
+            return null;
+        }
+
+        close();
+        return runContext.storage().putFile(file);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (output != null) {
+            output.close();
+            output = null;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package io.kestra.plugin.influxdb.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Uniform random sample of at most {@code size} items over a stream of unknown length (reservoir sampling,
+ * algorithm R). The sample is returned in arrival order.
+ */
+public class Reservoir<T> {
+    private final Object[] items;
+    private final long[] positions;
+    private long seen;
+
+    public Reservoir(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Sample size must be positive, got " + size);
+        }
+
+        this.items = new Object[size];
+        this.positions = new long[size];
+    }
+
+    public void add(T item) {
+        int slot;
+        if (seen < items.length) {
+            slot = (int) seen;
+        } else {
+            long candidate = ThreadLocalRandom.current().nextLong(seen + 1);
+            slot = candidate < items.length ? (int) candidate : -1;
+        }
+
+        if (slot >= 0) {
+            items[slot] = item;
+            positions[slot] = seen;
+        }
+
+        seen++;
+    }
+
+    /**
+     * Number of items offered to the reservoir.
+     */
+    public long seen() {
+        return seen;
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<T> sample() {
+        int size = (int) Math.min(seen, items.length);
+
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong(i -> positions[i]));
+
+        List<T> sample = new ArrayList<>(size);
+        for (Integer i : order) {
+            sample.add((T) items[i]);
+        }
+
+        return sample;
+    }
+}
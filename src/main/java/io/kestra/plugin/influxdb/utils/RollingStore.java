@@ -0,0 +1,264 @@
+package io.kestra.plugin.influxdb.utils;
+
+import java.io.*;
+import java.net.URI;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.luben.zstd.ZstdOutputStream;
+
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.serializers.FileSerde;
+import io.kestra.core.serializers.JacksonMapper;
+import io.kestra.plugin.influxdb.AbstractQuery.Compression;
+import io.kestra.plugin.influxdb.AbstractQuery.Format;
+
+/**
+ * Writes rows to ION, JSON Lines or Parquet files in the working directory, rolling over to a new file once
+ * {@code maxRows} rows or {@code maxBytes} bytes have been written.
+ * <p>
+ * Each file is uploaded to internal storage by a background thread as soon as it is closed, so uploads overlap with
+ * the query, and is deleted locally once uploaded. With a compression, rows are compressed as they are written: ION
+ * and JSON Lines files are compressed as a whole with gzip or zstd, Parquet pages with the matching Parquet codec at
+ * the same level. A
+ * Parquet file also rolls over when a row doesn't fit its schema (see {@link ParquetFile}).
+ */
+public class RollingStore implements Closeable {
+    private static final ObjectMapper MAPPER = JacksonMapper.ofJson();
+    private static final long ROW_GROUP_SIZE = 32 * 1024 * 1024;
+
+    private final RunContext runContext;
+    private final Long maxRows;
+    private final Long maxBytes;
+    private final Compression compression;
+    private final int level;
+    private final Format format;
+    private final ExecutorService uploader = Executors.newSingleThreadExecutor();
+    private final List<Future<URI>> uploads = new ArrayList<>();
+
+    private File file;
+    private CountingOutputStream output;
+    private CountingOutputStream stored;
+    private ParquetFile parquet;
+    private long fileRows;
+    private long rows;
+    private long rawBytes;
+    private long storedBytes;
+
+    /**
+     * @param maxRows maximum number of rows per file, unbounded when {@code null}
+     * @param maxBytes maximum number of bytes written to a file (after compression), unbounded when {@code null};
+     *                 a file may exceed it by one row and the compressor buffer
+     * @param compression the compression of the files
+     * @param level the compression level, from 1 to 9 for gzip and from 1 to 19 for zstd, the codec default when
+     *              {@code null}
+     * @param format the file format
+     */
+    public RollingStore(RunContext runContext, Long maxRows, Long maxBytes, Compression compression, Integer level, Format format) {
+        int maxLevel = switch (compression) {
+            case NONE -> Integer.MAX_VALUE;
+            case GZIP -> Deflater.BEST_COMPRESSION;
+            case ZSTD -> 19;
+        };
+        if (level != null && (level < 1 || level > maxLevel)) {
+            throw new IllegalArgumentException("Compression level must be between 1 and " + maxLevel + " for " + compression + ", got " + level);
+        }
+
+        this.runContext = runContext;
+        this.maxRows = maxRows;
+        this.maxBytes = maxBytes;
+        this.compression = compression;
+        this.level = level != null ? level : switch (compression) {
+            case NONE -> 0;
+            case GZIP -> 6;
+            case ZSTD -> 3;
+        };
+        this.format = format;
+    }
+
+    public void write(Map<String, Object> row) throws IOException {
+        if (format == Format.PARQUET) {
+            if (parquet != null && !parquet.accepts(row)) {
+                roll();
+            }
+            if (parquet == null) {
+                openParquet(row);
+            }
+            parquet.write(row);
+        } else {
+            if (output == null) {
+                open();
+            }
+
+            switch (format) {
+                case ION -> FileSerde.write(output, row);
+                case JSON -> {
+                    output.write(MAPPER.writeValueAsBytes(row));
+                    output.write('\n');
+                }
+            }
+        }
+        fileRows++;
+        rows++;
+
+        long fileBytes = parquet != null ? parquet.size() : stored.count;
+        if ((maxRows != null && fileRows >= maxRows) || (maxBytes != null && fileBytes >= maxBytes)) {
+            roll();
+        }
+    }
+
+    /**
+     * Number of rows written.
+     */
+    public long rows() {
+        return rows;
+    }
+
+    /**
+     * Number of bytes serialized, before compression, in closed ION and JSON Lines files; Parquet files aren't
+     * counted since their pages are compressed inside the writer.
+     */
+    public long rawBytes() {
+        return rawBytes;
+    }
+
+    /**
+     * Number of bytes written to closed files, after compression.
+     */
+    public long storedBytes() {
+        return storedBytes;
+    }
+
+    /**
+     * Close the current file and wait for every upload.
+     *
+     * @return the URIs of the files in write order; when no row was written, a single empty file, or no file for
+     * Parquet whose schema comes from the rows
+     */
+    public List<URI> store() throws IOException {
+        if (parquet != null) {
+            roll();
+        } else if (output != null || (uploads.isEmpty() && format != Format.PARQUET)) {
+            if (output == null) {
+                open();
+            }
+            roll();
+        }
+
+        List<URI> uris = new ArrayList<>(uploads.size());
+        try {
+            for (Future<URI> upload : uploads) {
+                uris.add(upload.get());
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException("Unable to upload query results", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while uploading query results");
+        }
+
+        return uris;
+    }
+
+    private void openParquet(Map<String, Object> first) throws IOException {
+        file = runContext.workingDir().createTempFile(".parquet").toFile();
+        parquet = new ParquetFile(file.toPath(), first, compression, level, ROW_GROUP_SIZE);
+        fileRows = 0;
+    }
+
+    private void open() throws IOException {
+        String extension = format == Format.JSON ? ".jsonl" : ".ion";
+        file = runContext.workingDir().createTempFile(switch (compression) {
+            case NONE -> extension;
+            case GZIP -> extension + ".gz";
+            case ZSTD -> extension + ".zst";
+        }).toFile();
+        stored = new CountingOutputStream(new FileOutputStream(file));
+
+        OutputStream raw = switch (compression) {
+            case NONE -> stored;
+            case GZIP -> new LevelGzipOutputStream(stored, level);
+            case ZSTD -> new ZstdOutputStream(stored, level);
+        };
+
+        output = new CountingOutputStream(new BufferedOutputStream(raw, FileSerde.BUFFER_SIZE));
+        fileRows = 0;
+    }
+
+    private void roll() throws IOException {
+        if (parquet != null) {
+            parquet.close();
+            parquet = null;
+            storedBytes += file.length();
+        } else {
+            output.close();
+            rawBytes += output.count;
+            storedBytes += stored.count;
+            output = null;
+            stored = null;
+        }
+
+        File closed = file;
+        uploads.add(uploader.submit(() ->
+        {
+            URI uri = runContext.storage().putFile(closed);
+            Files.deleteIfExists(closed.toPath());
+            return uri;
+        }));
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (output != null) {
+                output.close();
+                output = null;
+            }
+            if (parquet != null) {
+                parquet.close();
+                parquet = null;
+            }
+        } finally {
+            uploader.shutdownNow();
+        }
+    }
+
+    private static class LevelGzipOutputStream extends GZIPOutputStream {
+        LevelGzipOutputStream(OutputStream out, int level) throws IOException {
+            super(out, FileSerde.BUFFER_SIZE);
+            def.setLevel(level);
+        }
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
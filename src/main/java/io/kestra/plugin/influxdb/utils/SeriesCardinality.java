@@ -0,0 +1,55 @@
+package io.kestra.plugin.influxdb.utils;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Streaming estimate of the number of distinct series keys per measurement in line-protocol records.
+ */
+public class SeriesCardinality {
+    private final Map<String, HyperLogLog> measurements = new ConcurrentHashMap<>();
+    private volatile Measurement last;
+
+    public void add(String line) {
+        int seriesEnd = LineProtocol.seriesEnd(line);
+        int measurementEnd = LineProtocol.measurementEnd(line, seriesEnd);
+
+        // records of a file almost always share their measurement, skip the substring and map lookup
+        Measurement current = this.last;
+        if (current == null || current.name().length() != measurementEnd || !line.startsWith(current.name())) {
+            String name = line.substring(0, measurementEnd);
+            current = new Measurement(name, measurements.computeIfAbsent(name, key -> new HyperLogLog()));
+            this.last = current;
+        }
+
+        current.sketch().add(HyperLogLog.hash(line, 0, seriesEnd));
+    }
+
+    /**
+     * Estimated number of series per measurement.
+     */
+    public Map<String, Long> estimates() {
+        Map<String, Long> estimates = new TreeMap<>();
+        measurements.forEach((name, sketch) -> estimates.put(name, sketch.estimate()));
+        return estimates;
+    }
+
+    /**
+     * Fail when a measurement is estimated to hold more than {@code maxSeries} series.
+     */
+    public void check(long maxSeries) {
+        for (Map.Entry<String, HyperLogLog> entry : measurements.entrySet()) {
+            long estimate = entry.getValue().estimate();
+            if (estimate > maxSeries) {
+                throw new IllegalStateException(
+                    "Estimated series cardinality of measurement '" + entry.getKey() + "' is " + estimate +
+                        ", above `maxSeries` " + maxSeries + "; aborting before writing the next batch. Check the `tags` setting."
+                );
+            }
+        }
+    }
+
+    private record Measurement(String name, HyperLogLog sketch) {
+    }
+}
@@ -0,0 +1,171 @@
+package io.kestra.plugin.influxdb.utils;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import io.kestra.core.runners.RunContext;
+
+import reactor.core.publisher.Flux;
+
+import static io.kestra.core.utils.Rethrow.throwConsumer;
+import static io.kestra.core.utils.Rethrow.throwFunction;
+
+/**
+ * Reorders line-protocol records by series key (measurement and tag set, already sorted by {@code Point}) then by
+ * timestamp, so that batches hold few series with points in time order.
+ */
+public class SeriesSorter {
+    private static final Comparator<Key> ORDER = Comparator.comparing(Key::series).thenComparingLong(Key::time);
+
+    private final RunContext runContext;
+    private final int size;
+
+    /**
+     * @param runContext run context whose working directory holds spilled runs
+     * @param size number of records sorted in memory at once
+     */
+    public SeriesSorter(RunContext runContext, int size) {
+        this.runContext = runContext;
+        this.size = Math.max(1, size);
+    }
+
+    /**
+     * Sort consecutive windows of {@code size} records independently; memory is bounded by one window.
+     */
+    public Flux<String> window(Flux<String> lines) {
+        return lines
+            .buffer(size)
+            .flatMapIterable(SeriesSorter::sort);
+    }
+
+    /**
+     * Sort all the records with an external merge sort: runs of {@code size} records are sorted in memory and spilled
+     * to the working directory, then merged.
+     */
+    public Flux<String> full(Flux<String> lines) {
+        return lines
+            .buffer(size)
+            .map(throwFunction(this::spill))
+            .collectList()
+            .flatMapMany(runs -> Flux.using(
+                () -> new Merge(runs),
+                merge -> Flux.fromIterable(() -> merge),
+                throwConsumer(Merge::close)
+            ));
+    }
+
+    private static List<String> sort(List<String> lines) {
+        Key[] keys = new Key[lines.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = Key.of(lines.get(i));
+        }
+
+        Arrays.sort(keys, ORDER);
+
+        List<String> sorted = new ArrayList<>(keys.length);
+        for (Key key : keys) {
+            sorted.add(key.line());
+        }
+        return sorted;
+    }
+
+    private Path spill(List<String> lines) throws IOException {
+        Path path = runContext.workingDir().createTempFile(".lp");
+
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            for (String line : sort(lines)) {
+                byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+                output.writeInt(bytes.length);
+                output.write(bytes);
+            }
+        }
+
+        return path;
+    }
+
+    private record Key(String series, long time, String line) {
+        static Key of(String line) {
+            int end = LineProtocol.seriesEnd(line);
+            return new Key(line.substring(0, end), LineProtocol.timestamp(line, end), line);
+        }
+    }
+
+    private static class Run implements Closeable {
+        private final Path path;
+        private final DataInputStream input;
+        private Key head;
+
+        Run(Path path) throws IOException {
+            this.path = path;
+            this.input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)));
+            advance();
+        }
+
+        void advance() throws IOException {
+            try {
+                byte[] bytes = new byte[input.readInt()];
+                input.readFully(bytes);
+                head = Key.of(new String(bytes, StandardCharsets.UTF_8));
+            } catch (EOFException e) {
+                head = null;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            input.close();
+            Files.deleteIfExists(path);
+        }
+    }
+
+    private static class Merge implements Iterator<String>, Closeable {
+        private final List<Run> runs = new ArrayList<>();
+        private final PriorityQueue<Run> heads = new PriorityQueue<>(Comparator.comparing((Run run) -> run.head, ORDER));
+
+        Merge(List<Path> paths) throws IOException {
+            for (Path path : paths) {
+                Run run = new Run(path);
+                runs.add(run);
+                if (run.head != null) {
+                    heads.add(run);
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public String next() {
+            Run run = heads.poll();
+            if (run == null) {
+                throw new NoSuchElementException();
+            }
+
+            String line = run.head.line();
+            try {
+                run.advance();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            if (run.head != null) {
+                heads.add(run);
+            }
+
+            return line;
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (Run run : runs) {
+                run.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package io.kestra.plugin.influxdb.utils;
+
+import java.util.*;
+
+/**
+ * Per-group count, min, max, mean and quantiles of a numeric column, computed over streamed rows in constant memory
+ * per group.
+ */
+public class Summaries {
+    private static final Set<String> NON_GROUP_COLUMNS = Set.of("result", "table", "_start", "_stop", "_time", "time");
+
+    private final String valueColumn;
+    private final List<String> groupBy;
+    private final List<Double> quantiles;
+    private final Map<Map<String, Object>, Summary> groups = new LinkedHashMap<>();
+    private long rows;
+
+    /**
+     * @param valueColumn the column to summarize
+     * @param groupBy grouping columns; when {@code null}, every column except the value, time and Flux system columns
+     * @param quantiles quantiles to report, between 0 and 1
+     */
+    public Summaries(String valueColumn, List<String> groupBy, List<Double> quantiles) {
+        this.valueColumn = valueColumn;
+        this.groupBy = groupBy;
+        this.quantiles = quantiles;
+
+        for (Double quantile : quantiles) {
+            if (quantile < 0 || quantile > 1) {
+                throw new IllegalArgumentException("Quantiles must be between 0 and 1, got " + quantile);
+            }
+        }
+    }
+
+    public void add(Map<String, Object> row) {
+        rows++;
+
+        if (!(row.get(valueColumn) instanceof Number value)) {
+            return;
+        }
+
+        Map<String, Object> key = new LinkedHashMap<>();
+        if (groupBy != null) {
+            for (String column : groupBy) {
+                key.put(column, row.get(column));
+            }
+        } else {
+            new TreeMap<>(row).forEach((column, columnValue) ->
+            {
+                if (!column.equals(valueColumn) && !NON_GROUP_COLUMNS.contains(column)) {
+                    key.put(column, columnValue);
+                }
+            });
+        }
+
+        groups.computeIfAbsent(key, k -> new Summary()).add(value.doubleValue());
+    }
+
+    /**
+     * Number of rows received, including those without a numeric value.
+     */
+    public long rows() {
+        return rows;
+    }
+
+    /**
+     * One row per group with the group columns followed by the statistics.
+     */
+    public List<Map<String, Object>> results() {
+        List<Map<String, Object>> results = new ArrayList<>(groups.size());
+
+        groups.forEach((key, summary) ->
+        {
+            Map<String, Object> result = new LinkedHashMap<>(key);
+            result.put("count", summary.count);
+            result.put("min", summary.min);
+            result.put("max", summary.max);
+            result.put("mean", summary.sum / summary.count);
+            for (Double quantile : quantiles) {
+                result.put(name(quantile), summary.digest.quantile(quantile));
+            }
+            results.add(result);
+        });
+
+        return results;
+    }
+
+    private static String name(double quantile) {
+        double percent = quantile * 100;
+        return percent == Math.rint(percent) ? "p" + (long) percent : "p" + String.valueOf(percent).replace('.', '_');
+    }
+
+    private static class Summary {
+        private final TDigest digest = new TDigest(100);
+        private long count;
+        private double sum;
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+
+        void add(double value) {
+            count++;
+            sum += value;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            digest.add(value);
+        }
+    }
+}
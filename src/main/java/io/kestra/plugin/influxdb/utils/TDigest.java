@@ -0,0 +1,140 @@
+package io.kestra.plugin.influxdb.utils;
+
+import java.util.Arrays;
+
+/**
+ * Merging t-digest for streaming quantile estimation in constant memory.
+ * <p>
+ * Values are buffered then merged into centroids whose weight is bounded by {@code 4 * n * q * (1 - q) / compression},
+ * which keeps the number of centroids around {@code compression} while preserving accuracy at the tails.
+ */
+public class TDigest {
+    private final double compression;
+    private final double[] buffer;
+    private int buffered;
+
+    private double[] means = new double[0];
+    private double[] weights = new double[0];
+    private int centroids;
+
+    private double totalWeight;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public TDigest(double compression) {
+        this.compression = compression;
+        this.buffer = new double[(int) Math.ceil(compression * 5)];
+    }
+
+    public void add(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+
+        buffer[buffered++] = value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+
+        if (buffered == buffer.length) {
+            merge();
+        }
+    }
+
+    public double quantile(double q) {
+        merge();
+
+        if (centroids == 0) {
+            return Double.NaN;
+        }
+
+        if (centroids == 1 || q <= 0) {
+            return q <= 0 ? min : means[0];
+        }
+
+        if (q >= 1) {
+            return max;
+        }
+
+        double index = q * totalWeight;
+
+        // between the minimum and the center of the first centroid
+        if (index < weights[0] / 2) {
+            return min + (means[0] - min) * index / (weights[0] / 2);
+        }
+
+        double cumulative = weights[0] / 2;
+        for (int i = 0; i < centroids - 1; i++) {
+            double step = (weights[i] + weights[i + 1]) / 2;
+            if (cumulative + step >= index) {
+                return means[i] + (means[i + 1] - means[i]) * (index - cumulative) / step;
+            }
+            cumulative += step;
+        }
+
+        // between the center of the last centroid and the maximum
+        double last = weights[centroids - 1] / 2;
+        return means[centroids - 1] + (max - means[centroids - 1]) * Math.min(1, (index - cumulative) / last);
+    }
+
+    private void merge() {
+        if (buffered == 0) {
+            return;
+        }
+
+        int size = centroids + buffered;
+        double[] allMeans = Arrays.copyOf(means, size);
+        double[] allWeights = Arrays.copyOf(weights, size);
+        for (int i = 0; i < buffered; i++) {
+            allMeans[centroids + i] = buffer[i];
+            allWeights[centroids + i] = 1;
+        }
+
+        totalWeight += buffered;
+        buffered = 0;
+
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(allMeans[a], allMeans[b]));
+
+        double[] newMeans = new double[size];
+        double[] newWeights = new double[size];
+        int count = 0;
+
+        double mean = allMeans[order[0]];
+        double weight = allWeights[order[0]];
+        double before = 0;
+
+        for (int i = 1; i < size; i++) {
+            double candidateMean = allMeans[order[i]];
+            double candidateWeight = allWeights[order[i]];
+            double proposed = weight + candidateWeight;
+
+            double q0 = before / totalWeight;
+            double q2 = (before + proposed) / totalWeight;
+            double limit = totalWeight * 4 * Math.min(q0 * (1 - q0), q2 * (1 - q2)) / compression;
+
+            if (proposed <= Math.max(1, limit)) {
+                mean += (candidateMean - mean) * candidateWeight / proposed;
+                weight = proposed;
+            } else {
+                newMeans[count] = mean;
+                newWeights[count] = weight;
+                count++;
+
+                before += weight;
+                mean = candidateMean;
+                weight = candidateWeight;
+            }
+        }
+
+        newMeans[count] = mean;
+        newWeights[count] = weight;
+        count++;
+
+        means = Arrays.copyOf(newMeans, count);
+        weights = Arrays.copyOf(newWeights, count);
+        centroids = count;
+    }
+}
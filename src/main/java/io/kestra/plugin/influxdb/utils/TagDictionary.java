@@ -0,0 +1,108 @@
+package io.kestra.plugin.influxdb.utils;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded dictionary of tag values in their escaped line-protocol form, evicting the least recently used values, used
+ * to build the tag set of a record (such as {@code ,host=a,region=eu}) from the tag keys escaped once and the cached
+ * values, so that a value repeated over millions of records is escaped once and then costs a hash lookup, whatever the
+ * number of combinations of tag values.
+ * <p>
+ * Not thread-safe: use one dictionary per sequentially read source.
+ */
+public class TagDictionary {
+    private final String[] keys;
+    private final String[] escapedKeys;
+    private final Map<String, String> values;
+    private long hits;
+    private long misses;
+
+    /**
+     * @param keys the tag keys, written in the order of {@link com.influxdb.client.write.Point}, which sorts them
+     */
+    public TagDictionary(Collection<String> keys, int maxSize) {
+        this.keys = keys.stream().sorted().toArray(String[]::new);
+        this.escapedKeys = Arrays.stream(this.keys).map(key -> escape(key, true)).toArray(String[]::new);
+        this.values = new LinkedHashMap<>(Math.min(maxSize, 1024), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Append the escaped tag set of a record, without the tags that have no value or an empty one.
+     */
+    public StringBuilder appendTagSet(StringBuilder line, Map<String, Object> record) {
+        for (int i = 0; i < keys.length; i++) {
+            Object raw = record.get(keys[i]);
+            String value = raw == null ? "" : raw.toString();
+
+            if (!value.isEmpty() && !escapedKeys[i].isEmpty()) {
+                line.append(',').append(escapedKeys[i]).append('=').append(this.escaped(value));
+            }
+        }
+
+        return line;
+    }
+
+    private String escaped(String value) {
+        String cached = values.get(value);
+        if (cached != null) {
+            hits++;
+            return cached;
+        }
+
+        misses++;
+        String escaped = escape(value, true);
+        values.put(value, escaped);
+        return escaped;
+    }
+
+    public long hits() {
+        return hits;
+    }
+
+    public long misses() {
+        return misses;
+    }
+
+    /**
+     * Escape a line-protocol key or tag value the way {@link com.influxdb.client.write.Point} does.
+     *
+     * @param escapeEqual whether {@code =} must be escaped, which is not the case for measurements
+     */
+    public static String escape(String raw, boolean escapeEqual) {
+        StringBuilder sb = null;
+
+        for (int i = 0; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+            String replacement = switch (c) {
+                case '\n' -> "\\n";
+                case '\r' -> "\\r";
+                case '\t' -> "\\t";
+                case ' ', ',' -> "\\" + c;
+                case '=' -> escapeEqual ? "\\=" : null;
+                default -> null;
+            };
+
+            if (replacement != null && sb == null) {
+                sb = new StringBuilder(raw.length() + 8).append(raw, 0, i);
+            }
+
+            if (sb != null) {
+                if (replacement != null) {
+                    sb.append(replacement);
+                } else {
+                    sb.append(c);
+                }
+            }
+        }
+
+        return sb == null ? raw : sb.toString();
+    }
+}
@@ -0,0 +1,54 @@
+package io.kestra.plugin.influxdb.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shapes line-protocol batches against optional points/sec and bytes/sec {@link RateLimiter}s.
+ */
+public class Throttle {
+    public static final Throttle NONE = new Throttle(null, null);
+
+    private final RateLimiter points;
+    private final RateLimiter bytes;
+    private final AtomicLong waited = new AtomicLong();
+
+    public Throttle(RateLimiter points, RateLimiter bytes) {
+        this.points = points;
+        this.bytes = bytes;
+    }
+
+    /**
+     * Block until the batch fits into the configured rates.
+     */
+    public void acquire(List<String> lines) throws InterruptedException {
+        long wait = 0;
+
+        if (points != null) {
+            wait = points.reserve(lines.size());
+        }
+
+        if (bytes != null) {
+            long size = 0;
+            for (String line : lines) {
+                size += line.getBytes(StandardCharsets.UTF_8).length + 1;
+            }
+            wait = Math.max(wait, bytes.reserve(size));
+        }
+
+        if (wait > 0) {
+            waited.addAndGet(wait);
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+
+    /**
+     * Total time spent waiting for permits.
+     */
+    public Duration waited() {
+        return Duration.ofNanos(waited.get());
+    }
+}
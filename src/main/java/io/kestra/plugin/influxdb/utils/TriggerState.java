@@ -0,0 +1,54 @@
+package io.kestra.plugin.influxdb.utils;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+
+import io.kestra.core.models.conditions.ConditionContext;
+import io.kestra.core.models.triggers.AbstractTrigger;
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.storages.kv.KVMetadata;
+import io.kestra.core.storages.kv.KVStore;
+import io.kestra.core.storages.kv.KVValue;
+import io.kestra.core.storages.kv.KVValueAndMetadata;
+
+/**
+ * Small per-trigger state kept in the namespace KV store of the flow, so that it survives between evaluations
+ * whatever the scheduler or worker instance evaluating the trigger.
+ */
+public class TriggerState {
+    private final KVStore store;
+    private final String prefix;
+
+    private TriggerState(KVStore store, String prefix) {
+        this.store = store;
+        this.prefix = prefix;
+    }
+
+    public static TriggerState of(ConditionContext conditionContext, AbstractTrigger trigger) {
+        RunContext runContext = conditionContext.getRunContext();
+        String namespace = conditionContext.getFlow().getNamespace();
+
+        return new TriggerState(
+            runContext.namespaceKv(namespace),
+            "influxdb_" + conditionContext.getFlow().getId() + "_" + trigger.getId() + "_"
+        );
+    }
+
+    @SuppressWarnings("unchecked")
+    public Optional<Map<String, Object>> get(String name) throws IOException {
+        try {
+            return store.getValue(prefix + name)
+                .map(KVValue::value)
+                .filter(Map.class::isInstance)
+                .map(value -> (Map<String, Object>) value);
+        } catch (Exception e) {
+            throw e instanceof IOException io ? io : new IOException("Unable to read trigger state '" + prefix + name + "'", e);
+        }
+    }
+
+    public void put(String name, Map<String, Object> value, Duration ttl) throws IOException {
+        store.put(prefix + name, new KVValueAndMetadata(new KVMetadata("InfluxDB trigger state", ttl), value));
+    }
+}
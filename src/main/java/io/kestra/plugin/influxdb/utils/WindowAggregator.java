@@ -0,0 +1,202 @@
+package io.kestra.plugin.influxdb.utils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+import com.influxdb.client.domain.WritePrecision;
+import com.influxdb.client.write.Point;
+
+/**
+ * Collapses records into one point per series and time window.
+ * <p>
+ * Each series keeps a single open window, closed as soon as a record of a later window arrives; memory is therefore
+ * bounded by the number of series when the input is time-ordered per series. Records older than the open window of
+ * their series can't be merged into an already emitted point and are counted as late and dropped.
+ */
+public class WindowAggregator {
+    private final String measurement;
+    private final String timeField;
+    private final List<String> groupBy;
+    private final Map<String, Function> fields;
+    private final long windowNanos;
+
+    private final Map<List<String>, Window> open = new HashMap<>();
+    private long input;
+    private long late;
+
+    public WindowAggregator(String measurement, String timeField, List<String> groupBy, Map<String, Function> fields, Duration window) {
+        if (timeField == null) {
+            throw new IllegalArgumentException("`timeField` is required to aggregate records into time windows");
+        }
+
+        if (window.isZero() || window.isNegative()) {
+            throw new IllegalArgumentException("Aggregation `window` must be positive, got " + window);
+        }
+
+        this.measurement = measurement;
+        this.timeField = timeField;
+        this.groupBy = groupBy == null ? List.of() : groupBy;
+        this.fields = fields;
+        this.windowNanos = window.toNanos();
+    }
+
+    /**
+     * Add a record.
+     *
+     * @return the points of the windows closed by this record
+     */
+    public List<Point> add(Map<String, Object> values) {
+        input++;
+
+        Instant time = TimeUtils.toInstant(values.get(timeField));
+        if (time == null) {
+            throw new IllegalArgumentException("Record has no `" + timeField + "` value: " + values);
+        }
+
+        long nanos = Math.multiplyExact(time.getEpochSecond(), 1_000_000_000L) + time.getNano();
+        long start = Math.floorDiv(nanos, windowNanos) * windowNanos;
+
+        List<String> key = new ArrayList<>(groupBy.size());
+        for (String tag : groupBy) {
+            Object value = values.get(tag);
+            key.add(value == null ? null : value.toString());
+        }
+
+        Window window = open.get(key);
+        List<Point> closed = List.of();
+
+        if (window == null || start > window.start) {
+            if (window != null) {
+                closed = List.of(window.toPoint(key));
+            }
+            window = new Window(start);
+            open.put(key, window);
+        } else if (start < window.start) {
+            late++;
+            return closed;
+        }
+
+        for (Map.Entry<String, Function> field : fields.entrySet()) {
+            Object value = values.get(field.getKey());
+            if (value != null) {
+                window.accumulators.computeIfAbsent(field.getKey(), k -> new Accumulator()).add(field.getKey(), field.getValue(), value);
+            }
+        }
+
+        return closed;
+    }
+
+    /**
+     * Close every open window.
+     */
+    public List<Point> flush() {
+        List<Point> points = new ArrayList<>(open.size());
+        open.forEach((key, window) -> points.add(window.toPoint(key)));
+        open.clear();
+        return points;
+    }
+
+    /**
+     * Number of records received.
+     */
+    public long input() {
+        return input;
+    }
+
+    /**
+     * Number of records dropped because their window was already emitted.
+     */
+    public long late() {
+        return late;
+    }
+
+    public enum Function {
+        MEAN,
+        MIN,
+        MAX,
+        SUM,
+        LAST,
+        COUNT
+    }
+
+    private class Window {
+        private final long start;
+        private final Map<String, Accumulator> accumulators = new LinkedHashMap<>();
+
+        Window(long start) {
+            this.start = start;
+        }
+
+        Point toPoint(List<String> key) {
+            Point point = Point.measurement(measurement);
+
+            for (int i = 0; i < groupBy.size(); i++) {
+                if (key.get(i) != null) {
+                    point.addTag(groupBy.get(i), key.get(i));
+                }
+            }
+
+            accumulators.forEach((field, accumulator) -> accumulator.addTo(point, field, fields.get(field)));
+            point.time(start, WritePrecision.NS);
+
+            return point;
+        }
+    }
+
+    private static class Accumulator {
+        private long count;
+        private double sum;
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+        private Object last;
+
+        void add(String field, Function function, Object value) {
+            count++;
+            last = value;
+
+            if (function == Function.LAST || function == Function.COUNT) {
+                return;
+            }
+
+            double number = switch (value) {
+                case Number n -> n.doubleValue();
+                case String s -> {
+                    try {
+                        yield Double.parseDouble(s);
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Field '" + field + "' has non-numeric value '" + s + "' and can't be aggregated with " + function);
+                    }
+                }
+                default -> throw new IllegalArgumentException("Field '" + field + "' has non-numeric value '" + value + "' and can't be aggregated with " + function);
+            };
+
+            sum += number;
+            min = Math.min(min, number);
+            max = Math.max(max, number);
+        }
+
+        void addTo(Point point, String field, Function function) {
+            switch (function) {
+                case MEAN -> point.addField(field, sum / count);
+                case MIN -> point.addField(field, min);
+                case MAX -> point.addField(field, max);
+                case SUM -> point.addField(field, sum);
+                case COUNT -> point.addField(field, count);
+                case LAST -> {
+                    switch (last) {
+                        case Number n -> point.addField(field, n);
+                        case Boolean b -> point.addField(field, b);
+                        default -> {
+                            try {
+                                point.addField(field, Double.parseDouble(last.toString()));
+                            } catch (NumberFormatException e) {
+                                point.addField(field, last.toString());
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package io.kestra.plugin.influxdb.utils;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+import org.slf4j.Logger;
+
+import com.influxdb.exceptions.InfluxException;
+
+import io.kestra.core.runners.RunContext;
+
+/**
+ * Bounded on-disk FIFO of line-protocol batches that couldn't be written because InfluxDB was unavailable.
+ * <p>
+ * Batches are appended to segment files in the working directory and replayed in order by a background drainer, which
+ * retries each batch with an exponential backoff (from the retry interval up to 30 seconds) as long as the server
+ * answers with a retriable error. Appending blocks while the batches not replayed yet exceed the maximum size, and a
+ * segment is deleted as soon as all its batches are replayed, so the disk usage stays bounded by the maximum size
+ * plus one segment.
+ */
+public class WriteSpool implements Closeable {
+    private static final Duration MAX_BACKOFF = Duration.ofSeconds(30);
+
+    private final RunContext runContext;
+    private final Logger logger;
+    private final long maxBytes;
+    private final long segmentBytes;
+    private final Duration retryInterval;
+    private final Drain drain;
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private final Deque<IntConsumer> rejectionListeners = new ArrayDeque<>();
+
+    private long pendingBytes;
+    private int pendingBatches;
+    private int spooledBatches;
+    private Exception failure;
+    private Thread drainer;
+    private boolean closed;
+
+    public WriteSpool(RunContext runContext, long maxBytes, Duration retryInterval, Drain drain) {
+        this.runContext = runContext;
+        this.logger = runContext.logger();
+        this.maxBytes = maxBytes;
+        this.segmentBytes = Math.max(1, maxBytes / 4);
+        this.retryInterval = retryInterval;
+        this.drain = drain;
+    }
+
+    /**
+     * Whether InfluxDB may answer this failure differently later: connection errors, throttling and server errors.
+     */
+    public static boolean isRetriable(Exception e) {
+        if (e instanceof InfluxException influx) {
+            int status = influx.status();
+            return status == 0 || status == 429 || status >= 500;
+        }
+
+        return false;
+    }
+
+    /**
+     * Whether batches are waiting to be replayed, in which case new batches must be appended after them to keep the
+     * write order.
+     */
+    public synchronized boolean isActive() {
+        return pendingBatches > 0;
+    }
+
+    public void append(List<String> lines) throws IOException, InterruptedException {
+        this.append(lines, null);
+    }
+
+    /**
+     * @param rejected notified with the number of records of the batch that the server rejected when it was replayed,
+     *                 may be {@code null}
+     */
+    public synchronized void append(List<String> lines, IntConsumer rejected) throws IOException, InterruptedException {
+        this.throwIfFailed();
+
+        byte[] bytes = String.join("\n", lines).getBytes(StandardCharsets.UTF_8);
+        while (pendingBatches > 0 && pendingBytes + bytes.length > maxBytes) {
+            this.wait();
+            this.throwIfFailed();
+        }
+
+        Segment tail = segments.peekLast();
+        if (tail == null || tail.bytes >= segmentBytes) {
+            tail = new Segment(runContext.workingDir().createTempFile(".spool"));
+            segments.addLast(tail);
+        }
+        tail.append(bytes);
+        rejectionListeners.addLast(rejected != null ? rejected : count -> {});
+
+        pendingBytes += bytes.length;
+        pendingBatches++;
+        spooledBatches++;
+
+        if (drainer == null) {
+            logger.warn("InfluxDB is unavailable, spooling batches to replay them when it recovers");
+            drainer = Thread.ofPlatform().daemon().name("influxdb-spool").start(this::drain);
+        }
+
+        this.notifyAll();
+    }
+
+    /**
+     * Wait until every spooled batch has been replayed.
+     *
+     * @throws IllegalStateException if a batch can't be replayed or batches are still spooled after {@code maxWait}
+     */
+    public synchronized void await(Duration maxWait) throws InterruptedException {
+        long deadline = System.nanoTime() + maxWait.toNanos();
+
+        while (pendingBatches > 0 && failure == null) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                throw new IllegalStateException(pendingBatches + " batches are still spooled after waiting " + maxWait + " for InfluxDB to recover");
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+
+        this.throwIfFailed();
+    }
+
+    /**
+     * Number of batches that went through the spool.
+     */
+    public synchronized int spooled() {
+        return spooledBatches;
+    }
+
+    private void drain() {
+        try {
+            while (true) {
+                Segment head;
+                synchronized (this) {
+                    while (pendingBatches == 0 && !closed) {
+                        this.wait();
+                    }
+                    if (closed) {
+                        return;
+                    }
+                    // replayed segments are removed, so the next batch is in the first one
+                    head = segments.peekFirst();
+                }
+
+                // only this thread reads, and the record was flushed before being counted as pending
+                byte[] bytes = head.next();
+                List<String> lines = Arrays.asList(new String(bytes, StandardCharsets.UTF_8).split("\n"));
+                int accepted = this.replay(lines);
+
+                synchronized (this) {
+                    // before the batch stops being pending, for await() to see the final counts
+                    IntConsumer rejected = rejectionListeners.removeFirst();
+                    if (accepted < lines.size()) {
+                        rejected.accept(lines.size() - accepted);
+                    }
+
+                    pendingBytes -= bytes.length;
+                    pendingBatches--;
+                    if (head.replayed()) {
+                        segments.removeFirst();
+                        head.delete();
+                    }
+                    this.notifyAll();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            synchronized (this) {
+                failure = e;
+                this.notifyAll();
+            }
+        }
+    }
+
+    private int replay(List<String> lines) throws Exception {
+        Duration backoff = retryInterval;
+
+        while (true) {
+            try {
+                return drain.write(lines);
+            } catch (Exception e) {
+                if (!isRetriable(e)) {
+                    throw e;
+                }
+
+                logger.debug("InfluxDB is still unavailable, retrying in {}: {}", backoff, e.getMessage());
+                TimeUnit.MILLISECONDS.sleep(backoff.toMillis());
+                backoff = backoff.multipliedBy(2).compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : backoff.multipliedBy(2);
+            }
+        }
+    }
+
+    private void throwIfFailed() {
+        if (failure != null) {
+            throw new IllegalStateException("Unable to replay spooled batches: " + failure.getMessage(), failure);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        Thread running;
+        synchronized (this) {
+            closed = true;
+            running = drainer;
+            this.notifyAll();
+        }
+
+        if (running != null) {
+            running.interrupt();
+            try {
+                running.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        synchronized (this) {
+            for (Segment segment : segments) {
+                segment.delete();
+            }
+            segments.clear();
+        }
+    }
+
+    @FunctionalInterface
+    public interface Drain {
+        /**
+         * @return the number of records accepted by the server
+         */
+        int write(List<String> lines) throws Exception;
+    }
+
+    private static class Segment {
+        private final Path path;
+        private final DataOutputStream output;
+        private DataInputStream input;
+        private long bytes;
+        private int batches;
+        private int read;
+
+        Segment(Path path) throws IOException {
+            this.path = path;
+            this.output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)));
+        }
+
+        void append(byte[] batch) throws IOException {
+            output.writeInt(batch.length);
+            output.write(batch);
+            output.flush();
+            bytes += Integer.BYTES + batch.length;
+            batches++;
+        }
+
+        byte[] next() throws IOException {
+            if (input == null) {
+                input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)));
+            }
+
+            byte[] batch = new byte[input.readInt()];
+            input.readFully(batch);
+            return batch;
+        }
+
+        /**
+         * Count a replayed batch, and tell whether it was the last one appended to the segment.
+         */
+        boolean replayed() {
+            return ++read == batches;
+        }
+
+        void delete() throws IOException {
+            output.close();
+            if (input != null) {
+                input.close();
+            }
+            Files.deleteIfExists(path);
+        }
+    }
+}
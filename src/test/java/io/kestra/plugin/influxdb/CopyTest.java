@@ -0,0 +1,84 @@
+package io.kestra.plugin.influxdb;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+import io.kestra.core.junit.annotations.KestraTest;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.runners.RunContextFactory;
+
+import jakarta.inject.Inject;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@KestraTest
+class CopyTest {
+    @Inject
+    private RunContextFactory runContextFactory;
+
+    @Test
+    void run() throws Exception {
+        RunContext runContext = runContextFactory.of(ImmutableMap.of());
+
+        Copy task = Copy.builder()
+            .connection(connection())
+            .org(Property.ofValue("my-org"))
+            .bucket(Property.ofValue("test-bucket"))
+            .query(Property.ofValue("""
+                from(bucket: "test-bucket")
+                  |> range(start: -1h)
+                  |> filter(fn: (r) => r._measurement == "air")
+                """))
+            .measurement(Property.ofValue("air_copy"))
+            .chunk(Property.ofValue(1))
+            .build();
+
+        Copy.Output output = task.run(runContext);
+
+        assertThat(output.getRecordCount(), is(greaterThan(0L)));
+        assertThat(output.getBatchCount(), is(output.getRecordCount().intValue()));
+        assertThat(output.getPartitionCount(), is(1));
+        assertThat(runContext.metrics().stream().anyMatch(m -> m.getName().equals("throughput")), is(true));
+    }
+
+    @Test
+    void partitioned() throws Exception {
+        RunContext runContext = runContextFactory.of(ImmutableMap.of());
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MINUTES).plus(Duration.ofMinutes(1));
+
+        Copy task = Copy.builder()
+            .connection(connection())
+            .org(Property.ofValue("my-org"))
+            .bucket(Property.ofValue("test-bucket"))
+            .query(Property.ofValue("""
+                from(bucket: "test-bucket")
+                  |> range(start: {{ partition.start }}, stop: {{ partition.stop }})
+                  |> filter(fn: (r) => r._measurement == "air")
+                """))
+            .measurement(Property.ofValue("air_copy"))
+            .start(Property.ofValue(now.minus(Duration.ofHours(1)).toString()))
+            .stop(Property.ofValue(now.toString()))
+            .partitionDuration(Property.ofValue(Duration.ofMinutes(15)))
+            .concurrency(Property.ofValue(2))
+            .build();
+
+        Copy.Output output = task.run(runContext);
+
+        assertThat(output.getPartitionCount(), is(4));
+        assertThat(output.getRecordCount(), is(greaterThan(0L)));
+    }
+
+    private static InfluxDBConnection connection() {
+        return InfluxDBConnection.builder()
+            .url(Property.ofValue("http://localhost:8086"))
+            .token(Property.ofValue("my-token"))
+            .build();
+    }
+}
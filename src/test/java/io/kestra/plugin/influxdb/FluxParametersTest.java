@@ -0,0 +1,90 @@
+package io.kestra.plugin.influxdb;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableMap;
+import com.sun.net.httpserver.HttpServer;
+
+import io.kestra.core.junit.annotations.KestraTest;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.models.tasks.common.FetchType;
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.runners.RunContextFactory;
+import io.kestra.core.serializers.JacksonMapper;
+
+import jakarta.inject.Inject;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@KestraTest
+class FluxParametersTest {
+    private static final String FLUX_CSV_RESPONSE = """
+        #datatype,string,long,dateTime:RFC3339,double
+        #group,false,false,true,false
+        #default,_result,,,
+        ,result,table,_time,_value
+        ,_result,0,2020-01-01T00:00:00Z,1
+        """;
+
+    @Inject
+    private RunContextFactory runContextFactory;
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void parametersAreSentAsParams() throws Exception {
+        AtomicReference<String> body = new AtomicReference<>();
+
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange ->
+        {
+            try {
+                body.set(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+
+                exchange.getResponseHeaders().add("Content-Type", "application/csv; charset=utf-8");
+                exchange.sendResponseHeaders(200, 0);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(FLUX_CSV_RESPONSE.getBytes(StandardCharsets.UTF_8));
+                }
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+
+        try {
+            RunContext runContext = runContextFactory.of(ImmutableMap.of());
+            String flux = "from(bucket: \"test-bucket\") |> range(start: -1h) |> filter(fn: (r) => contains(value: r.host, set: params.hosts))";
+
+            FluxQuery query = FluxQuery.builder()
+                .connection(
+                    InfluxDBConnection.builder()
+                        .url(Property.ofValue("http://localhost:" + server.getAddress().getPort()))
+                        .token(Property.ofValue("my-token"))
+                        .build()
+                )
+                .org(Property.ofValue("my-org"))
+                .query(Property.ofValue(flux))
+                .parameters(Property.ofValue(Map.of("hosts", List.of("server-01", "server-02"))))
+                .fetchType(Property.ofValue(FetchType.FETCH))
+                .build();
+
+            FluxQuery.Output output = query.run(runContext);
+
+            assertThat(output.getSize(), is(1));
+
+            Map<String, Object> request = JacksonMapper.toMap(body.get());
+            assertThat(request.get("query"), is(flux));
+            assertThat(((Map<String, Object>) request.get("params")).get("hosts"), is(List.of("server-01", "server-02")));
+        } finally {
+            server.stop(0);
+        }
+    }
+}
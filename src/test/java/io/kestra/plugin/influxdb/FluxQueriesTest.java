@@ -0,0 +1,103 @@
+package io.kestra.plugin.influxdb;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+import io.kestra.core.junit.annotations.KestraTest;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.models.tasks.common.FetchType;
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.runners.RunContextFactory;
+
+import jakarta.inject.Inject;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@KestraTest
+class FluxQueriesTest {
+    @Inject
+    private RunContextFactory runContextFactory;
+
+    @Test
+    void run() throws Exception {
+        RunContext runContext = runContextFactory.of(ImmutableMap.of());
+
+        FluxQueries task = FluxQueries.builder()
+            .connection(
+                InfluxDBConnection.builder()
+                    .url(Property.ofValue("http://localhost:8086"))
+                    .token(Property.ofValue("my-token"))
+                    .build()
+            )
+            .org(Property.ofValue("my-org"))
+            .queries(Property.ofValue(Map.of(
+                "sample", "from(bucket: \"test-bucket\") |> range(start: -1h) |> limit(n: 5)",
+                "count", "from(bucket: \"test-bucket\") |> range(start: -1h) |> group() |> count()",
+                "empty", "from(bucket: \"test-bucket\") |> range(start: -1h) |> filter(fn: (r) => r._measurement == \"missing\")"
+            )))
+            .fetchType(Property.ofValue(FetchType.FETCH))
+            .concurrency(Property.ofValue(2))
+            .build();
+
+        FluxQueries.Output output = task.run(runContext);
+
+        assertThat(output.getResults().keySet(), containsInAnyOrder("sample", "count", "empty"));
+        assertThat(output.getResults().get("sample").getSize(), is(greaterThan(0)));
+        assertThat(output.getResults().get("count").getSize(), is(1));
+        assertThat(output.getResults().get("empty").getSize(), is(0));
+    }
+
+    @Test
+    void virtualThreads() throws Exception {
+        RunContext runContext = runContextFactory.of(ImmutableMap.of());
+
+        Map<String, String> queries = new HashMap<>();
+        for (int i = 0; i < 12; i++) {
+            queries.put("q" + i, "from(bucket: \"test-bucket\") |> range(start: -1h) |> limit(n: 1)");
+        }
+
+        FluxQueries task = FluxQueries.builder()
+            .connection(
+                InfluxDBConnection.builder()
+                    .url(Property.ofValue("http://localhost:8086"))
+                    .token(Property.ofValue("my-token"))
+                    .virtualThreads(Property.ofValue(true))
+                    .maxRequestsPerHost(Property.ofValue(12))
+                    .build()
+            )
+            .org(Property.ofValue("my-org"))
+            .queries(Property.ofValue(queries))
+            .concurrency(Property.ofValue(12))
+            .build();
+
+        FluxQueries.Output output = task.run(runContext);
+
+        assertThat(output.getResults(), is(aMapWithSize(12)));
+        assertThat(output.getResults().values().stream().allMatch(result -> result.getSize() > 0), is(true));
+    }
+
+    @Test
+    void failedQuery() {
+        RunContext runContext = runContextFactory.of(ImmutableMap.of());
+
+        FluxQueries task = FluxQueries.builder()
+            .connection(
+                InfluxDBConnection.builder()
+                    .url(Property.ofValue("http://localhost:8086"))
+                    .token(Property.ofValue("my-token"))
+                    .build()
+            )
+            .org(Property.ofValue("my-org"))
+            .queries(Property.ofValue(Map.of("broken", "from(bucket: \"test-bucket\") |> not_a_function()")))
+            .build();
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> task.run(runContext));
+        assertThat(exception.getMessage(), containsString("broken"));
+    }
+}
@@ -1,7 +1,26 @@
 package io.kestra.plugin.influxdb;
 
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.parquet.column.Encoding;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.io.LocalInputFile;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
 import org.junit.jupiter.api.Test;
 
+import com.github.luben.zstd.ZstdInputStream;
 import com.google.common.collect.ImmutableMap;
 
 import io.kestra.core.junit.annotations.KestraTest;
@@ -9,11 +28,14 @@ import io.kestra.core.models.property.Property;
 import io.kestra.core.models.tasks.common.FetchType;
 import io.kestra.core.runners.RunContext;
 import io.kestra.core.runners.RunContextFactory;
+import io.kestra.core.serializers.FileSerde;
+import io.kestra.core.serializers.JacksonMapper;
 
 import jakarta.inject.Inject;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @KestraTest
 class FluxQueryTest {
@@ -42,4 +64,284 @@ class FluxQueryTest {
         assertThat(output.getRows(), is(notNullValue()));
         assertThat(output.getTotal(), is(greaterThan(0L)));
     }
-}
\ No newline at end of file
+
+    @Test
+    void summary() throws Exception {
+        RunContext runContext = runContextFactory.of(ImmutableMap.of());
+
+        FluxQuery query = FluxQuery.builder()
+            .connection(
+                InfluxDBConnection.builder()
+                    .url(Property.ofValue("http://localhost:8086"))
+                    .token(Property.ofValue("my-token"))
+                    .build()
+            )
+            .org(Property.ofValue("my-org"))
+            .query(Property.ofValue("from(bucket: \"test-bucket\") |> range(start: -1h)"))
+            .summary(Summary.builder().groupBy(Property.ofValue(List.of("_measurement", "_field"))).build())
+            .build();
+
+        FluxQuery.Output output = query.run(runContext);
+
+        assertThat(output.getRows(), is(nullValue()));
+        assertThat(output.getSummaries(), is(not(empty())));
+        assertThat(output.getSummaries().getFirst(), hasKey("_measurement"));
+        assertThat(output.getSummaries().getFirst(), hasKey("p95"));
+        assertThat(output.getSummaries().stream().mapToLong(row -> (Long) row.get("count")).sum(), is(lessThanOrEqualTo(output.getTotal())));
+    }
+
+    @Test
+    void sample() throws Exception {
+        RunContext runContext = runContextFactory.of(ImmutableMap.of());
+
+        FluxQuery query = FluxQuery.builder()
+            .connection(
+                InfluxDBConnection.builder()
+                    .url(Property.ofValue("http://localhost:8086"))
+                    .token(Property.ofValue("my-token"))
+                    .build()
+            )
+            .org(Property.ofValue("my-org"))
+            .query(Property.ofValue("from(bucket: \"test-bucket\") |> range(start: -1h)"))
+            .fetchType(Property.ofValue(FetchType.FETCH))
+            .sampleSize(Property.ofValue(1))
+            .build();
+
+        FluxQuery.Output output = query.run(runContext);
+
+        assertThat(output.getSize(), is(1));
+        assertThat(output.getRows(), hasSize(1));
+        assertThat(output.getTotal(), is(greaterThanOrEqualTo(1L)));
+    }
+
+    @Test
+    void splitStore() throws Exception {
+        RunContext runContext = runContextFactory.of(ImmutableMap.of());
+
+        FluxQuery query = FluxQuery.builder()
+            .connection(
+                InfluxDBConnection.builder()
+                    .url(Property.ofValue("http://localhost:8086"))
+                    .token(Property.ofValue("my-token"))
+                    .build()
+            )
+            .org(Property.ofValue("my-org"))
+            .query(Property.ofValue("from(bucket: \"test-bucket\") |> range(start: -1h) |> limit(n: 3)"))
+            .fetchType(Property.ofValue(FetchType.STORE))
+            .maxRowsPerFile(Property.ofValue(2L))
+            .build();
+
+        FluxQuery.Output output = query.run(runContext);
+
+        assertThat(output.getTotal(), is(greaterThan(2L)));
+        assertThat((long) output.getUris().size(), is((output.getTotal() + 1) / 2));
+        assertThat(output.getUri(), is(output.getUris().getFirst()));
+
+        long stored = 0;
+        for (URI uri : output.getUris()) {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(runContext.storage().getFile(uri)))) {
+                long rows = FileSerde.readAll(reader).count().block();
+                assertThat(rows, is(lessThanOrEqualTo(2L)));
+                stored += rows;
+            }
+        }
+        assertThat(stored, is(output.getTotal()));
+    }
+
+    @Test
+    void compressedStore() throws Exception {
+        RunContext runContext = runContextFactory.of(ImmutableMap.of());
+
+        FluxQuery query = FluxQuery.builder()
+            .connection(
+                InfluxDBConnection.builder()
+                    .url(Property.ofValue("http://localhost:8086"))
+                    .token(Property.ofValue("my-token"))
+                    .build()
+            )
+            .org(Property.ofValue("my-org"))
+            .query(Property.ofValue("from(bucket: \"test-bucket\") |> range(start: -1h)"))
+            .fetchType(Property.ofValue(FetchType.STORE))
+            .outputCompression(Property.ofValue(AbstractQuery.Compression.GZIP))
+            .compressionLevel(Property.ofValue(9))
+            .build();
+
+        FluxQuery.Output output = query.run(runContext);
+
+        assertThat(output.getUri().toString(), endsWith(".ion.gz"));
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(runContext.storage().getFile(output.getUri()))))) {
+            assertThat(FileSerde.readAll(reader).count().block(), is(output.getTotal()));
+        }
+    }
+
+    @Test
+    void zstdStore() throws Exception {
+        RunContext runContext = runContextFactory.of(ImmutableMap.of());
+
+        FluxQuery query = FluxQuery.builder()
+            .connection(
+                InfluxDBConnection.builder()
+                    .url(Property.ofValue("http://localhost:8086"))
+                    .token(Property.ofValue("my-token"))
+                    .build()
+            )
+            .org(Property.ofValue("my-org"))
+            .query(Property.ofValue("from(bucket: \"test-bucket\") |> range(start: -1h)"))
+            .fetchType(Property.ofValue(FetchType.STORE))
+            .outputCompression(Property.ofValue(AbstractQuery.Compression.ZSTD))
+            .compressionLevel(Property.ofValue(12))
+            .build();
+
+        FluxQuery.Output output = query.run(runContext);
+
+        assertThat(output.getUri().toString(), endsWith(".ion.zst"));
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new ZstdInputStream(runContext.storage().getFile(output.getUri()))))) {
+            assertThat(FileSerde.readAll(reader).count().block(), is(output.getTotal()));
+        }
+    }
+
+    @Test
+    void invalidCompressionLevel() {
+        for (int level : List.of(0, 10)) {
+            RunContext runContext = runContextFactory.of(ImmutableMap.of());
+
+            FluxQuery query = FluxQuery.builder()
+                .connection(
+                    InfluxDBConnection.builder()
+                        .url(Property.ofValue("http://localhost:8086"))
+                        .token(Property.ofValue("my-token"))
+                        .build()
+                )
+                .org(Property.ofValue("my-org"))
+                .query(Property.ofValue("from(bucket: \"test-bucket\") |> range(start: -1h) |> limit(n: 1)"))
+                .fetchType(Property.ofValue(FetchType.STORE))
+                .outputCompression(Property.ofValue(AbstractQuery.Compression.GZIP))
+                .compressionLevel(Property.ofValue(level))
+                .build();
+
+            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> query.run(runContext));
+            assertThat(exception.getMessage(), containsString("between 1 and 9"));
+        }
+    }
+
+    @Test
+    void jsonStore() throws Exception {
+        RunContext runContext = runContextFactory.of(ImmutableMap.of());
+
+        FluxQuery query = FluxQuery.builder()
+            .connection(
+                InfluxDBConnection.builder()
+                    .url(Property.ofValue("http://localhost:8086"))
+                    .token(Property.ofValue("my-token"))
+                    .build()
+            )
+            .org(Property.ofValue("my-org"))
+            .query(Property.ofValue("from(bucket: \"test-bucket\") |> range(start: -1h) |> limit(n: 10)"))
+            .fetchType(Property.ofValue(FetchType.STORE))
+            .format(Property.ofValue(AbstractQuery.Format.JSON))
+            .build();
+
+        FluxQuery.Output output = query.run(runContext);
+
+        assertThat(output.getUri().toString(), endsWith(".jsonl"));
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(runContext.storage().getFile(output.getUri())))) {
+            List<String> lines = reader.lines().toList();
+            assertThat((long) lines.size(), is(output.getTotal()));
+            assertThat(JacksonMapper.toMap(lines.getFirst()), hasKey("_value"));
+        }
+    }
+
+    @Test
+    void parquetStore() throws Exception {
+        RunContext runContext = runContextFactory.of(ImmutableMap.of());
+
+        FluxQuery query = FluxQuery.builder()
+            .connection(
+                InfluxDBConnection.builder()
+                    .url(Property.ofValue("http://localhost:8086"))
+                    .token(Property.ofValue("my-token"))
+                    .build()
+            )
+            .org(Property.ofValue("my-org"))
+            .query(Property.ofValue("""
+                import "array"
+
+                array.from(rows: [
+                    {_time: 2024-01-01T00:00:00Z, host: "a", _value: 1.5, count: 3, ok: true},
+                    {_time: 2024-01-01T00:01:00Z, host: "a", _value: 2.5, count: 4, ok: false},
+                    {_time: 2024-01-01T00:02:00Z, host: "b", _value: 3.5, count: 5, ok: true}
+                ])
+                """))
+            .fetchType(Property.ofValue(FetchType.STORE))
+            .format(Property.ofValue(AbstractQuery.Format.PARQUET))
+            .build();
+
+        FluxQuery.Output output = query.run(runContext);
+
+        assertThat(output.getUri().toString(), endsWith(".parquet"));
+
+        Path local = runContext.workingDir().createTempFile(".parquet");
+        try (InputStream inputStream = runContext.storage().getFile(output.getUri())) {
+            Files.copy(inputStream, local, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        try (ParquetFileReader reader = ParquetFileReader.open(new LocalInputFile(local))) {
+            assertThat(reader.getRecordCount(), is(3L));
+
+            MessageType schema = reader.getFooter().getFileMetaData().getSchema();
+            assertThat(schema.getType("_value").asPrimitiveType().getPrimitiveTypeName(), is(PrimitiveTypeName.DOUBLE));
+            assertThat(schema.getType("count").asPrimitiveType().getPrimitiveTypeName(), is(PrimitiveTypeName.INT64));
+            assertThat(schema.getType("ok").asPrimitiveType().getPrimitiveTypeName(), is(PrimitiveTypeName.BOOLEAN));
+            assertThat(schema.getType("_time").getLogicalTypeAnnotation(), is(LogicalTypeAnnotation.timestampType(true, LogicalTypeAnnotation.TimeUnit.NANOS)));
+            assertThat(schema.getType("host").getLogicalTypeAnnotation(), is(LogicalTypeAnnotation.stringType()));
+
+            ColumnChunkMetaData host = reader.getRowGroups().getFirst().getColumns().stream()
+                .filter(column -> column.getPath().toDotString().equals("host"))
+                .findFirst()
+                .orElseThrow();
+            assertThat(host.getEncodings(), hasItem(anyOf(is(Encoding.PLAIN_DICTIONARY), is(Encoding.RLE_DICTIONARY))));
+        }
+    }
+
+    @Test
+    void compressedParquetStore() throws Exception {
+        RunContext runContext = runContextFactory.of(ImmutableMap.of());
+
+        FluxQuery query = FluxQuery.builder()
+            .connection(
+                InfluxDBConnection.builder()
+                    .url(Property.ofValue("http://localhost:8086"))
+                    .token(Property.ofValue("my-token"))
+                    .build()
+            )
+            .org(Property.ofValue("my-org"))
+            .query(Property.ofValue("""
+                import "array"
+
+                array.from(rows: [
+                    {_time: 2024-01-01T00:00:00Z, host: "a", _value: 1.5},
+                    {_time: 2024-01-01T00:01:00Z, host: "a", _value: 2.5}
+                ])
+                """))
+            .fetchType(Property.ofValue(FetchType.STORE))
+            .format(Property.ofValue(AbstractQuery.Format.PARQUET))
+            .outputCompression(Property.ofValue(AbstractQuery.Compression.GZIP))
+            .compressionLevel(Property.ofValue(1))
+            .build();
+
+        FluxQuery.Output output = query.run(runContext);
+
+        Path local = runContext.workingDir().createTempFile(".parquet");
+        try (InputStream inputStream = runContext.storage().getFile(output.getUri())) {
+            Files.copy(inputStream, local, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        try (ParquetFileReader reader = ParquetFileReader.open(new LocalInputFile(local))) {
+            assertThat(reader.getRecordCount(), is(2L));
+            assertThat(reader.getRowGroups().getFirst().getColumns().getFirst().getCodec(), is(CompressionCodecName.GZIP));
+        }
+
+        // the uncompressed size of Parquet pages isn't known, so no ratio is reported
+        assertThat(runContext.metrics().stream().anyMatch(m -> m.getName().equals("store.compression.ratio")), is(false));
+    }
+}
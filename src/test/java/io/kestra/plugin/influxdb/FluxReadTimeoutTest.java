@@ -5,7 +5,10 @@ import java.io.OutputStream;
 import java.net.InetSocketAddress;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.time.Instant;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.Test;
 
@@ -86,6 +89,37 @@ class FluxReadTimeoutTest {
         }
     }
 
+    @Test
+    void shouldCancelInFlightQueryWhenKilled() throws Exception {
+        try (DelayedInfluxServer server = DelayedInfluxServer.start(Duration.ofSeconds(10), FLUX_CSV_RESPONSE)) {
+            RunContext runContext = runContextFactory.of(ImmutableMap.of());
+
+            FluxQuery query = FluxQuery.builder()
+                .connection(
+                    InfluxDBConnection.builder()
+                        .url(Property.ofValue(server.baseUrl()))
+                        .token(Property.ofValue("my-token"))
+                        .readTimeout(Property.ofValue(Duration.ofSeconds(30)))
+                        .build()
+                )
+                .org(Property.ofValue("my-org"))
+                .query(Property.ofValue("from(bucket: \"test-bucket\") |> range(start: -1h) |> limit(n: 1)"))
+                .fetchType(Property.ofValue(FetchType.FETCH))
+                .build();
+
+            ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+            try {
+                scheduler.schedule(query::kill, 300, TimeUnit.MILLISECONDS);
+
+                Instant started = Instant.now();
+                assertThrows(Exception.class, () -> query.run(runContext));
+                assertThat(Duration.between(started, Instant.now()), lessThan(Duration.ofSeconds(5)));
+            } finally {
+                scheduler.shutdownNow();
+            }
+        }
+    }
+
     private static boolean hasTimeoutCause(Throwable t) {
         Throwable current = t;
         while (current != null) {
@@ -0,0 +1,82 @@
+package io.kestra.plugin.influxdb;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+import io.kestra.core.junit.annotations.KestraTest;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.models.tasks.common.FetchType;
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.runners.RunContextFactory;
+import io.kestra.plugin.influxdb.utils.FluxScript;
+
+import jakarta.inject.Inject;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@KestraTest
+class FluxSelectTest {
+    @Inject
+    private RunContextFactory runContextFactory;
+
+    @Test
+    void generate() throws Exception {
+        RunContext runContext = runContextFactory.of(ImmutableMap.of());
+
+        FluxSelect select = FluxSelect.builder()
+            .bucket(Property.ofValue("test-bucket"))
+            .start(Property.ofValue("-1h"))
+            .stop(Property.ofValue("2030-01-01T00:00:00Z"))
+            .measurement(Property.ofValue("air"))
+            .tags(Property.ofValue(Map.of("sensor_id", List.of("TLM0100", "TLM\"0101"))))
+            .fields(Property.ofValue(List.of("temperature")))
+            .aggregateWindow(AggregateWindow.builder()
+                .every(Property.ofValue(Duration.ofMinutes(5)))
+                .fn(Property.ofValue(FluxScript.Function.MAX))
+                .build()
+            )
+            .pivot(Property.ofValue(true))
+            .build();
+
+        assertThat(select.flux(runContext), is("""
+            from(bucket: "test-bucket")
+              |> range(start: -1h, stop: 2030-01-01T00:00:00Z)
+              |> filter(fn: (r) => r._measurement == "air")
+              |> filter(fn: (r) => r.sensor_id == "TLM0100" or r.sensor_id == "TLM\\"0101")
+              |> filter(fn: (r) => r._field == "temperature")
+              |> aggregateWindow(every: 300s, fn: max, createEmpty: false)
+              |> pivot(rowKey: ["_time"], columnKey: ["_field"], valueColumn: "_value")"""
+        ));
+    }
+
+    @Test
+    void run() throws Exception {
+        RunContext runContext = runContextFactory.of(ImmutableMap.of());
+
+        FluxSelect select = FluxSelect.builder()
+            .connection(
+                InfluxDBConnection.builder()
+                    .url(Property.ofValue("http://localhost:8086"))
+                    .token(Property.ofValue("my-token"))
+                    .build()
+            )
+            .org(Property.ofValue("my-org"))
+            .bucket(Property.ofValue("test-bucket"))
+            .start(Property.ofValue("-1h"))
+            .measurement(Property.ofValue("air"))
+            .fields(Property.ofValue(List.of("co")))
+            .fetchType(Property.ofValue(FetchType.FETCH))
+            .build();
+
+        AbstractQuery.Output output = select.run(runContext);
+
+        assertThat(output.getSize(), is(greaterThan(0)));
+        assertThat(output.getRows().getFirst().get("_field"), is("co"));
+    }
+}
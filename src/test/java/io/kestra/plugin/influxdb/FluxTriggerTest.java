@@ -1,5 +1,6 @@
 package io.kestra.plugin.influxdb;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -32,4 +33,28 @@ public class FluxTriggerTest {
         assertThat(rows.getFirst().containsKey("_field"), is(true));
         assertThat(rows.getFirst().containsKey("_measurement"), is(true));
     }
+
+    @Test
+    void probeQuery() {
+        assertThat(
+            FluxTrigger.probeQuery("from(bucket: \"b\")\n  |> range(start: -1h)\n  |> yield(name: \"rows\")\n"),
+            is("from(bucket: \"b\")\n  |> range(start: -1h)\n  |> limit(n: 1)")
+        );
+        assertThat(
+            FluxTrigger.probeQuery("from(bucket: \"b\") |> range(start: -1h)"),
+            is("from(bucket: \"b\") |> range(start: -1h)\n  |> limit(n: 1)")
+        );
+    }
+
+    @Test
+    void adaptiveInterval() {
+        Duration min = Duration.ofSeconds(10);
+        Duration max = Duration.ofMinutes(5);
+
+        assertThat(FluxTrigger.adaptiveInterval(min, max, 0, Duration.ofMillis(100)), is(min));
+        assertThat(FluxTrigger.adaptiveInterval(min, max, 1, Duration.ofMillis(100)), is(Duration.ofSeconds(20)));
+        assertThat(FluxTrigger.adaptiveInterval(min, max, 3, Duration.ofMillis(100)), is(Duration.ofSeconds(80)));
+        assertThat(FluxTrigger.adaptiveInterval(min, max, 1_000, Duration.ofMillis(100)), is(max));
+        assertThat(FluxTrigger.adaptiveInterval(min, max, 0, Duration.ofSeconds(45)), is(Duration.ofSeconds(45)));
+    }
 }
@@ -2,6 +2,8 @@ package io.kestra.plugin.influxdb;
 
 import java.io.*;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
@@ -13,17 +15,21 @@ import com.google.common.collect.ImmutableMap;
 
 import io.kestra.core.junit.annotations.KestraTest;
 import io.kestra.core.models.property.Property;
+import io.kestra.core.models.tasks.common.FetchType;
 import io.kestra.core.runners.RunContext;
 import io.kestra.core.runners.RunContextFactory;
 import io.kestra.core.serializers.FileSerde;
+import io.kestra.core.serializers.JacksonMapper;
 import io.kestra.core.storages.StorageInterface;
 import io.kestra.core.utils.IdUtils;
+import io.kestra.plugin.influxdb.utils.WindowAggregator;
 
 import jakarta.inject.Inject;
 
 import static io.kestra.core.tenant.TenantService.MAIN_TENANT;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @KestraTest
 class LoadTest {
@@ -82,4 +88,476 @@ class LoadTest {
         assertThat(output.getRecordCount(), is(5));
         assertThat(runContext.metrics().stream().anyMatch(m -> m.getName().equals("records")), is(true));
     }
+
+    @Test
+    void multipleFiles() throws Exception {
+        RunContext runContext = runContextFactory.of();
+
+        List<String> uris = new ArrayList<>();
+        for (int file = 0; file < 3; file++) {
+            uris.add(ionFile(file + 2).toString());
+        }
+
+        Load task = Load.builder()
+            .connection(
+                InfluxDBConnection.builder()
+                    .url(Property.ofValue("http://localhost:8086"))
+                    .token(Property.ofValue("my-token"))
+                    .build()
+            )
+            .org(Property.ofValue("my-org"))
+            .bucket(Property.ofValue("test-bucket"))
+            .from(Property.ofValue(JacksonMapper.ofJson().writeValueAsString(uris)))
+            .concurrency(Property.ofValue(2))
+            .measurement(Property.ofValue("sensor_data"))
+            .tags(Property.ofValue(List.of("sensor", "location")))
+            .timeField(Property.ofValue("time"))
+            .build();
+
+        Load.Output output = task.run(runContext);
+
+        assertThat(output.getRecordCount(), is(2 + 3 + 4));
+        assertThat(output.getFiles(), hasSize(3));
+        assertThat(output.getFiles().get(2).getUri().toString(), is(uris.get(2)));
+        assertThat(output.getFiles().get(2).getRecordCount(), is(4));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void skipRejectedPoints() throws Exception {
+        RunContext runContext = runContextFactory.of();
+
+        File tempFile = File.createTempFile(this.getClass().getSimpleName().toLowerCase() + "_", ".ion");
+        try (OutputStream output = new FileOutputStream(tempFile)) {
+            for (String value : List.of("1", "2", "3", "not-a-number")) {
+                FileSerde.write(output, ImmutableMap.of("sensor", "sensor-" + value, "value", value));
+            }
+        }
+        URI uri = storageInterface.put(MAIN_TENANT, null, URI.create("/" + IdUtils.create() + ".ion"), new FileInputStream(tempFile));
+
+        Load task = Load.builder()
+            .connection(
+                InfluxDBConnection.builder()
+                    .url(Property.ofValue("http://localhost:8086"))
+                    .token(Property.ofValue("my-token"))
+                    .build()
+            )
+            .org(Property.ofValue("my-org"))
+            .bucket(Property.ofValue("test-bucket"))
+            .from(Property.ofValue(uri.toString()))
+            .measurement(Property.ofValue("conflict_" + IdUtils.create()))
+            .tags(Property.ofValue(List.of("sensor")))
+            .onError(Property.ofValue(AbstractLoad.OnError.SKIP))
+            .build();
+
+        Load.Output output = task.run(runContext);
+
+        assertThat(output.getRecordCount(), is(3));
+        assertThat(output.getRejectedCount(), is(1));
+        assertThat(output.getRejectedUri(), notNullValue());
+
+        try (InputStream is = new BufferedInputStream(storageInterface.get(MAIN_TENANT, null, output.getRejectedUri()), FileSerde.BUFFER_SIZE)) {
+            List<Object> rejected = new ArrayList<>();
+            FileSerde.read(is, rejected::add);
+            assertThat(rejected, hasSize(1));
+            assertThat((String) ((Map<String, Object>) rejected.getFirst()).get("line"), containsString("not-a-number"));
+            assertThat(((Map<String, Object>) rejected.getFirst()).get("error"), notNullValue());
+        }
+    }
+
+    @Test
+    void sorted() throws Exception {
+        RunContext runContext = runContextFactory.of();
+
+        Load task = Load.builder()
+            .connection(
+                InfluxDBConnection.builder()
+                    .url(Property.ofValue("http://localhost:8086"))
+                    .token(Property.ofValue("my-token"))
+                    .build()
+            )
+            .org(Property.ofValue("my-org"))
+            .bucket(Property.ofValue("test-bucket"))
+            .from(Property.ofValue(ionFile(7).toString()))
+            .measurement(Property.ofValue("sensor_data"))
+            .tags(Property.ofValue(List.of("sensor", "location")))
+            .timeField(Property.ofValue("time"))
+            .sort(Property.ofValue(AbstractLoad.SortMode.FULL))
+            .sortWindow(Property.ofValue(2))
+            .chunk(Property.ofValue(3))
+            .build();
+
+        Load.Output output = task.run(runContext);
+
+        assertThat(output.getRecordCount(), is(7));
+        assertThat(output.getFiles().getFirst().getBatchCount(), is(3L));
+    }
+
+    @Test
+    void maxSeries() throws Exception {
+        RunContext runContext = runContextFactory.of();
+
+        Load task = Load.builder()
+            .connection(
+                InfluxDBConnection.builder()
+                    .url(Property.ofValue("http://localhost:8086"))
+                    .token(Property.ofValue("my-token"))
+                    .build()
+            )
+            .org(Property.ofValue("my-org"))
+            .bucket(Property.ofValue("test-bucket"))
+            .from(Property.ofValue(ionFile(7).toString()))
+            .measurement(Property.ofValue("sensor_data"))
+            .tags(Property.ofValue(List.of("sensor", "location")))
+            .timeField(Property.ofValue("time"))
+            .maxSeries(Property.ofValue(3L))
+            .build();
+
+        Exception exception = assertThrows(Exception.class, () -> task.run(runContext));
+        assertThat(exception.getMessage(), containsString("maxSeries"));
+    }
+
+    @Test
+    void aggregated() throws Exception {
+        RunContext runContext = runContextFactory.of();
+
+        File tempFile = File.createTempFile(this.getClass().getSimpleName().toLowerCase() + "_", ".ion");
+        try (OutputStream output = new FileOutputStream(tempFile)) {
+            for (int i = 0; i < 6; i++) {
+                FileSerde.write(
+                    output, ImmutableMap.of(
+                        "sensor", "sensor-" + (i % 2),
+                        "value", i,
+                        "time", "2024-01-01T00:0" + (i / 4) + ":" + (10 + i) + "Z"
+                    )
+                );
+            }
+        }
+        URI uri = storageInterface.put(MAIN_TENANT, null, URI.create("/" + IdUtils.create() + ".ion"), new FileInputStream(tempFile));
+
+        Load task = Load.builder()
+            .connection(
+                InfluxDBConnection.builder()
+                    .url(Property.ofValue("http://localhost:8086"))
+                    .token(Property.ofValue("my-token"))
+                    .build()
+            )
+            .org(Property.ofValue("my-org"))
+            .bucket(Property.ofValue("test-bucket"))
+            .from(Property.ofValue(uri.toString()))
+            .measurement(Property.ofValue("sensor_data_1m"))
+            .tags(Property.ofValue(List.of("sensor")))
+            .timeField(Property.ofValue("time"))
+            .aggregation(
+                Aggregation.builder()
+                    .window(Property.ofValue(Duration.ofMinutes(1)))
+                    .fields(Property.ofValue(Map.of("value", WindowAggregator.Function.MEAN)))
+                    .build()
+            )
+            .build();
+
+        Load.Output output = task.run(runContext);
+
+        // 2 sensors x 2 minutes
+        assertThat(output.getRecordCount(), is(4));
+        assertThat(runContext.metrics().stream().filter(m -> m.getName().equals("aggregation.input")).findFirst().orElseThrow().getValue(), is(6.0));
+    }
+
+    @Test
+    void aggregatedMultipleFiles() throws Exception {
+        RunContext runContext = runContextFactory.of();
+
+        // both files hold points of the same series in the same minute
+        List<String> uris = List.of(
+            file("""
+                {"sensor": "sensor-0", "value": 1, "time": "2024-01-01T00:00:10Z"}
+                """).toString(),
+            file("""
+                {"sensor": "sensor-0", "value": 3, "time": "2024-01-01T00:00:50Z"}
+                """).toString()
+        );
+
+        Load task = Load.builder()
+            .connection(
+                InfluxDBConnection.builder()
+                    .url(Property.ofValue("http://localhost:8086"))
+                    .token(Property.ofValue("my-token"))
+                    .build()
+            )
+            .org(Property.ofValue("my-org"))
+            .bucket(Property.ofValue("test-bucket"))
+            .from(Property.ofValue(JacksonMapper.ofJson().writeValueAsString(uris)))
+            .format(Property.ofValue(Load.Format.NDJSON))
+            .measurement(Property.ofValue("sensor_data_1m"))
+            .tags(Property.ofValue(List.of("sensor")))
+            .timeField(Property.ofValue("time"))
+            .aggregation(
+                Aggregation.builder()
+                    .window(Property.ofValue(Duration.ofMinutes(1)))
+                    .fields(Property.ofValue(Map.of("value", WindowAggregator.Function.MEAN)))
+                    .build()
+            )
+            .build();
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> task.run(runContext));
+        assertThat(exception.getMessage(), containsString("aggregation"));
+    }
+
+    @Test
+    void csv() throws Exception {
+        RunContext runContext = runContextFactory.of();
+        String measurement = "sensor_csv_" + IdUtils.create();
+        URI uri = file("""
+            sensor;value;count;note;time
+            sensor-0;1.5;3;"a; quoted
+            note";2024-01-01T00:00:00Z
+            sensor-1;2.5;4;;2024-01-01T00:00:01Z
+            """);
+
+        Load task = Load.builder()
+            .connection(
+                InfluxDBConnection.builder()
+                    .url(Property.ofValue("http://localhost:8086"))
+                    .token(Property.ofValue("my-token"))
+                    .build()
+            )
+            .org(Property.ofValue("my-org"))
+            .bucket(Property.ofValue("test-bucket"))
+            .from(Property.ofValue(uri.toString()))
+            .format(Property.ofValue(Load.Format.CSV))
+            .delimiter(Property.ofValue(";"))
+            .measurement(Property.ofValue(measurement))
+            .tags(Property.ofValue(List.of("sensor")))
+            .timeField(Property.ofValue("time"))
+            .fieldTypes(Property.ofValue(Map.of("count", Load.FieldType.LONG)))
+            .build();
+
+        Load.Output output = task.run(runContext);
+
+        assertThat(output.getRecordCount(), is(2));
+
+        List<Map<String, Object>> points = points(runContext, measurement);
+        assertThat(points, hasSize(2));
+        assertThat(points.getFirst().get("sensor"), is("sensor-0"));
+        assertThat(points.getFirst().get("_time"), is(Instant.parse("2024-01-01T00:00:00Z")));
+        assertThat(points.getFirst().get("value"), is(1.5));
+        assertThat(points.getFirst().get("count"), is(3L));
+        assertThat(points.getFirst().get("note"), is("a; quoted\nnote"));
+        assertThat(points.get(1).get("sensor"), is("sensor-1"));
+        assertThat(points.get(1).get("count"), is(4L));
+        assertThat(points.get(1).get("note"), is(nullValue()));
+    }
+
+    @Test
+    void ndjson() throws Exception {
+        RunContext runContext = runContextFactory.of();
+        String measurement = "sensor_ndjson_" + IdUtils.create();
+        URI uri = file("""
+            {"sensor": "sensor-0", "value": 1.5, "count": 3, "time": "2024-01-01T00:00:00Z"}
+
+            {"sensor": "sensor-1", "value": 2, "count": 4, "time": "2024-01-01T00:00:01Z"}
+            """);
+
+        Load task = Load.builder()
+            .connection(
+                InfluxDBConnection.builder()
+                    .url(Property.ofValue("http://localhost:8086"))
+                    .token(Property.ofValue("my-token"))
+                    .build()
+            )
+            .org(Property.ofValue("my-org"))
+            .bucket(Property.ofValue("test-bucket"))
+            .from(Property.ofValue(uri.toString()))
+            .format(Property.ofValue(Load.Format.NDJSON))
+            .measurement(Property.ofValue(measurement))
+            .tags(Property.ofValue(List.of("sensor")))
+            .timeField(Property.ofValue("time"))
+            .fieldTypes(Property.ofValue(Map.of("value", Load.FieldType.DOUBLE, "count", Load.FieldType.LONG)))
+            .build();
+
+        Load.Output output = task.run(runContext);
+
+        assertThat(output.getRecordCount(), is(2));
+
+        List<Map<String, Object>> points = points(runContext, measurement);
+        assertThat(points, hasSize(2));
+        assertThat(points.getFirst().get("sensor"), is("sensor-0"));
+        assertThat(points.getFirst().get("value"), is(1.5));
+        assertThat(points.getFirst().get("count"), is(3L));
+        // an integral JSON number is still written as a float field
+        assertThat(points.get(1).get("value"), is(2.0));
+        assertThat(points.get(1).get("count"), is(4L));
+    }
+
+    @Test
+    void ndjsonUntyped() throws Exception {
+        RunContext runContext = runContextFactory.of();
+        String measurement = "sensor_ndjson_" + IdUtils.create();
+        URI uri = file("""
+            {"sensor": "sensor-0", "value": 1.5, "count": 3, "active": true, "reading": "4.5", "time": "2024-01-01T00:00:00Z"}
+            """);
+
+        Load task = Load.builder()
+            .connection(
+                InfluxDBConnection.builder()
+                    .url(Property.ofValue("http://localhost:8086"))
+                    .token(Property.ofValue("my-token"))
+                    .build()
+            )
+            .org(Property.ofValue("my-org"))
+            .bucket(Property.ofValue("test-bucket"))
+            .from(Property.ofValue(uri.toString()))
+            .format(Property.ofValue(Load.Format.NDJSON))
+            .measurement(Property.ofValue(measurement))
+            .tags(Property.ofValue(List.of("sensor")))
+            .timeField(Property.ofValue("time"))
+            .build();
+
+        Load.Output output = task.run(runContext);
+
+        assertThat(output.getRecordCount(), is(1));
+
+        List<Map<String, Object>> points = points(runContext, measurement);
+        assertThat(points, hasSize(1));
+        assertThat(points.getFirst().get("value"), is(1.5));
+        assertThat(points.getFirst().get("count"), is(3L));
+        assertThat(points.getFirst().get("active"), is(true));
+        assertThat(points.getFirst().get("reading"), is(4.5));
+    }
+
+    @Test
+    void ionUntyped() throws Exception {
+        RunContext runContext = runContextFactory.of();
+        String measurement = "sensor_ion_" + IdUtils.create();
+
+        File tempFile = File.createTempFile(this.getClass().getSimpleName().toLowerCase() + "_", ".ion");
+        try (OutputStream output = new FileOutputStream(tempFile)) {
+            FileSerde.write(
+                output, ImmutableMap.of(
+                    "sensor", "sensor-0",
+                    "count", 3,
+                    "typed", 4,
+                    "reading", "4.5",
+                    "time", "2024-01-01T00:00:00Z"
+                )
+            );
+        }
+        URI uri = storageInterface.put(MAIN_TENANT, null, URI.create("/" + IdUtils.create() + ".ion"), new FileInputStream(tempFile));
+
+        Load task = Load.builder()
+            .connection(
+                InfluxDBConnection.builder()
+                    .url(Property.ofValue("http://localhost:8086"))
+                    .token(Property.ofValue("my-token"))
+                    .build()
+            )
+            .org(Property.ofValue("my-org"))
+            .bucket(Property.ofValue("test-bucket"))
+            .from(Property.ofValue(uri.toString()))
+            .measurement(Property.ofValue(measurement))
+            .tags(Property.ofValue(List.of("sensor")))
+            .timeField(Property.ofValue("time"))
+            .fieldTypes(Property.ofValue(Map.of("typed", Load.FieldType.LONG)))
+            .build();
+
+        Load.Output output = task.run(runContext);
+
+        assertThat(output.getRecordCount(), is(1));
+
+        // untyped ION numbers keep being written as strings, as before CSV and NDJSON support
+        List<Map<String, Object>> points = points(runContext, measurement);
+        assertThat(points, hasSize(1));
+        assertThat(points.getFirst().get("count"), is("3"));
+        assertThat(points.getFirst().get("typed"), is(4L));
+        assertThat(points.getFirst().get("reading"), is(4.5));
+    }
+
+    @Test
+    void lineProtocol() throws Exception {
+        RunContext runContext = runContextFactory.of();
+        String measurement = "sensor_lp_" + IdUtils.create();
+        URI uri = file("""
+            # exported from telegraf
+            %1$s,sensor=sensor-0 value=1.5,count=3i 1704067200000000000
+
+            %1$s,sensor=sensor-1 value=2.5,count=4i 1704067201000000000
+            %1$s,sensor=sensor-2 value=3.5,count=5i
+            """.formatted(measurement));
+        Instant started = Instant.now();
+
+        Load task = Load.builder()
+            .connection(
+                InfluxDBConnection.builder()
+                    .url(Property.ofValue("http://localhost:8086"))
+                    .token(Property.ofValue("my-token"))
+                    .build()
+            )
+            .org(Property.ofValue("my-org"))
+            .bucket(Property.ofValue("test-bucket"))
+            .from(Property.ofValue(uri.toString()))
+            .format(Property.ofValue(Load.Format.LINE_PROTOCOL))
+            .onError(Property.ofValue(AbstractLoad.OnError.SKIP))
+            .build();
+
+        Load.Output output = task.run(runContext);
+
+        assertThat(output.getRecordCount(), is(3));
+
+        List<Map<String, Object>> points = points(runContext, measurement);
+        assertThat(points, hasSize(3));
+        assertThat(points.getFirst().get("sensor"), is("sensor-0"));
+        assertThat(points.getFirst().get("_time"), is(Instant.parse("2024-01-01T00:00:00Z")));
+        assertThat(points.getFirst().get("value"), is(1.5));
+        assertThat(points.getFirst().get("count"), is(3L));
+
+        // stamped with the client time since rejected batches may be bisected and written again
+        assertThat(points.get(2).get("sensor"), is("sensor-2"));
+        assertThat((Instant) points.get(2).get("_time"), greaterThanOrEqualTo(started));
+        assertThat(points.get(2).get("count"), is(5L));
+    }
+
+    private List<Map<String, Object>> points(RunContext runContext, String measurement) throws Exception {
+        FluxQuery query = FluxQuery.builder()
+            .connection(
+                InfluxDBConnection.builder()
+                    .url(Property.ofValue("http://localhost:8086"))
+                    .token(Property.ofValue("my-token"))
+                    .build()
+            )
+            .org(Property.ofValue("my-org"))
+            .query(Property.ofValue("""
+                from(bucket: "test-bucket")
+                  |> range(start: 2024-01-01T00:00:00Z)
+                  |> filter(fn: (r) => r._measurement == "%s")
+                  |> pivot(rowKey: ["_time"], columnKey: ["_field"], valueColumn: "_value")
+                  |> group()
+                  |> sort(columns: ["_time"])
+                """.formatted(measurement)))
+            .fetchType(Property.ofValue(FetchType.FETCH))
+            .build();
+
+        return query.run(runContext).getRows();
+    }
+
+    private URI file(String content) throws Exception {
+        return storageInterface.put(MAIN_TENANT, null, URI.create("/" + IdUtils.create() + ".txt"), new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private URI ionFile(int rows) throws Exception {
+        File tempFile = File.createTempFile(this.getClass().getSimpleName().toLowerCase() + "_", ".ion");
+        try (OutputStream output = new FileOutputStream(tempFile)) {
+            for (int i = 0; i < rows; i++) {
+                FileSerde.write(
+                    output, ImmutableMap.of(
+                        "sensor", "sensor-" + i,
+                        "value", i * 10,
+                        "location", "room-" + (i % 2),
+                        "time", Instant.now().toString()
+                    )
+                );
+            }
+        }
+
+        return storageInterface.put(MAIN_TENANT, null, URI.create("/" + IdUtils.create() + ".ion"), new FileInputStream(tempFile));
+    }
 }
@@ -0,0 +1,221 @@
+package io.kestra.plugin.influxdb;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+import io.kestra.core.junit.annotations.KestraTest;
+import io.kestra.core.models.conditions.ConditionContext;
+import io.kestra.core.models.executions.Execution;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.models.triggers.Trigger;
+import io.kestra.core.runners.RunContextFactory;
+import io.kestra.core.utils.TestsUtils;
+
+import jakarta.inject.Inject;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@KestraTest
+class RealtimeTriggerTest {
+    @Inject
+    private RunContextFactory runContextFactory;
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void emitsPointsWrittenAfterStart() throws Exception {
+        String measurement = "realtime_" + UUID.randomUUID().toString().replace("-", "");
+        RealtimeTrigger trigger = trigger(measurement, 1, null);
+        Watch watch = watch(trigger);
+
+        try {
+            write(measurement, "value=42.5");
+
+            Execution execution = watch.executions.poll(20, TimeUnit.SECONDS);
+            assertThat(execution, notNullValue());
+
+            Map<String, Object> row = (Map<String, Object>) execution.getTrigger().getVariables().get("row");
+            assertThat(row.get("_measurement"), is(measurement));
+            assertThat(row.get("_value"), is(42.5));
+        } finally {
+            watch.subscription.dispose();
+            trigger.stop();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void batchSize() throws Exception {
+        String measurement = "realtime_" + UUID.randomUUID().toString().replace("-", "");
+        RealtimeTrigger trigger = trigger(measurement, 2, null);
+        Watch watch = watch(trigger);
+
+        try {
+            write(measurement, "value=1", "value=2", "value=3", "value=4", "value=5");
+
+            List<Integer> sizes = new ArrayList<>();
+            int rows = 0;
+            while (rows < 5) {
+                Execution execution = watch.executions.poll(20, TimeUnit.SECONDS);
+                assertThat(execution, notNullValue());
+
+                List<Map<String, Object>> batch = (List<Map<String, Object>>) execution.getTrigger().getVariables().get("rows");
+                sizes.add(batch.size());
+                rows += batch.size();
+            }
+
+            assertThat(rows, is(5));
+            assertThat(sizes, everyItem(lessThanOrEqualTo(2)));
+            assertThat(sizes, hasItem(2));
+        } finally {
+            watch.subscription.dispose();
+            trigger.stop();
+        }
+    }
+
+    @Test
+    void overlapSkipsRowsAlreadyEmitted() throws Exception {
+        String measurement = "realtime_" + UUID.randomUUID().toString().replace("-", "");
+        RealtimeTrigger trigger = trigger(measurement, 1, Duration.ofSeconds(30));
+        Watch watch = watch(trigger);
+
+        try {
+            write(measurement, "value=1");
+
+            assertThat(watch.executions.poll(20, TimeUnit.SECONDS), notNullValue());
+
+            // the point stays in the overlap of the next ranges, which are queried every 200ms
+            assertThat(watch.executions.poll(3, TimeUnit.SECONDS), nullValue());
+        } finally {
+            watch.subscription.dispose();
+            trigger.stop();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void resumesFromSavedWatermark() throws Exception {
+        String measurement = "realtime_" + UUID.randomUUID().toString().replace("-", "");
+        RealtimeTrigger first = trigger(measurement, 1, null);
+        Map.Entry<ConditionContext, Trigger> context = TestsUtils.mockTrigger(runContextFactory, first);
+        Watch watch = watch(first, context);
+
+        try {
+            write(measurement, "value=1");
+            assertThat(watch.executions.poll(20, TimeUnit.SECONDS), notNullValue());
+        } finally {
+            first.stop();
+            assertThat(watch.completed.await(10, TimeUnit.SECONDS), is(true));
+            watch.subscription.dispose();
+        }
+
+        // written while no trigger is running
+        write(measurement, "value=2");
+
+        RealtimeTrigger second = trigger(measurement, 1, null);
+        Watch resumed = watch(second, context);
+
+        try {
+            Execution execution = resumed.executions.poll(20, TimeUnit.SECONDS);
+            assertThat(execution, notNullValue());
+
+            Map<String, Object> row = (Map<String, Object>) execution.getTrigger().getVariables().get("row");
+            assertThat(row.get("_value"), is(2.0));
+        } finally {
+            resumed.subscription.dispose();
+            second.stop();
+        }
+    }
+
+    @Test
+    void stopCompletes() throws Exception {
+        String measurement = "realtime_" + UUID.randomUUID().toString().replace("-", "");
+        RealtimeTrigger trigger = trigger(measurement, 1, null);
+        Watch watch = watch(trigger);
+
+        try {
+            TimeUnit.SECONDS.sleep(1);
+            trigger.stop();
+
+            assertThat(watch.completed.await(10, TimeUnit.SECONDS), is(true));
+        } finally {
+            watch.subscription.dispose();
+        }
+    }
+
+    private static RealtimeTrigger trigger(String measurement, int batchSize, Duration overlap) {
+        return RealtimeTrigger.builder()
+            // the watermark is saved per trigger id
+            .id("watch_" + measurement)
+            .type(RealtimeTrigger.class.getName())
+            .connection(
+                InfluxDBConnection.builder()
+                    .url(Property.ofValue("http://localhost:8086"))
+                    .token(Property.ofValue("my-token"))
+                    .build()
+            )
+            .org(Property.ofValue("my-org"))
+            .query(Property.ofValue("""
+                from(bucket: "test-bucket")
+                  |> range(start: {{ range.start }}, stop: {{ range.stop }})
+                  |> filter(fn: (r) => r._measurement == "%s")
+                """.formatted(measurement)))
+            .pollInterval(Property.ofValue(Duration.ofMillis(200)))
+            .lag(Property.ofValue(Duration.ofMillis(500)))
+            .overlap(overlap != null ? Property.ofValue(overlap) : null)
+            .batchSize(Property.ofValue(batchSize))
+            .build();
+    }
+
+    private Watch watch(RealtimeTrigger trigger) throws Exception {
+        return watch(trigger, TestsUtils.mockTrigger(runContextFactory, trigger));
+    }
+
+    private Watch watch(RealtimeTrigger trigger, Map.Entry<ConditionContext, Trigger> context) throws Exception {
+        BlockingQueue<Execution> executions = new LinkedBlockingQueue<>();
+        CountDownLatch completed = new CountDownLatch(1);
+        Disposable subscription = Flux.from(trigger.evaluate(context.getKey(), context.getValue()))
+            .subscribe(executions::add, e -> completed.countDown(), completed::countDown);
+
+        return new Watch(executions, completed, subscription);
+    }
+
+    private void write(String measurement, String... fields) throws Exception {
+        long now = Instant.now().toEpochMilli() * 1_000_000;
+
+        StringBuilder source = new StringBuilder();
+        for (int i = 0; i < fields.length; i++) {
+            source.append(measurement).append(",host=a ").append(fields[i]).append(' ').append(now + i).append('\n');
+        }
+
+        Write.builder()
+            .connection(
+                InfluxDBConnection.builder()
+                    .url(Property.ofValue("http://localhost:8086"))
+                    .token(Property.ofValue("my-token"))
+                    .build()
+            )
+            .org(Property.ofValue("my-org"))
+            .bucket(Property.ofValue("test-bucket"))
+            .source(Property.ofValue(source.toString()))
+            .build()
+            .run(runContextFactory.of(ImmutableMap.of()));
+    }
+
+    private record Watch(BlockingQueue<Execution> executions, CountDownLatch completed, Disposable subscription) {
+    }
+}
@@ -1,17 +1,25 @@
 package io.kestra.plugin.influxdb;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
 import org.junit.jupiter.api.Test;
 
 import com.google.common.collect.ImmutableMap;
 
 import io.kestra.core.junit.annotations.KestraTest;
 import io.kestra.core.models.property.Property;
+import io.kestra.core.models.tasks.common.FetchType;
 import io.kestra.core.runners.RunContext;
 import io.kestra.core.runners.RunContextFactory;
+import io.kestra.core.utils.IdUtils;
 
 import jakarta.inject.Inject;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 
 @KestraTest
@@ -42,4 +50,87 @@ class WriteTest {
         Write.Output output = task.run(runContext);
         assertThat(output.getRecordCount(), is(2));
     }
+
+    @Test
+    void rateLimited() throws Exception {
+        RunContext runContext = runContextFactory.of(ImmutableMap.of());
+
+        Write task = Write.builder()
+            .connection(
+                InfluxDBConnection.builder()
+                    .url(Property.ofValue("http://localhost:8086"))
+                    .token(Property.ofValue("my-token"))
+                    .build()
+            )
+            .org(Property.ofValue("my-org"))
+            .bucket(Property.ofValue("test-bucket"))
+            .chunk(Property.ofValue(1))
+            .rateLimit(
+                RateLimit.builder()
+                    .pointsPerSecond(Property.ofValue(2.0))
+                    .build()
+            )
+            .source(Property.ofValue("""
+                airSensors,sensor_id=KLM0100 temperature=71.2
+                airSensors,sensor_id=KLM0200 temperature=71.3
+                airSensors,sensor_id=KLM0300 temperature=71.4
+                airSensors,sensor_id=KLM0400 temperature=71.5
+                """))
+            .build();
+
+        long start = System.nanoTime();
+        Write.Output output = task.run(runContext);
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        assertThat(output.getRecordCount(), is(4));
+        // bucket starts with one second of budget (2 points), the 2 remaining points are spaced by 500ms
+        assertThat(elapsed.toMillis(), is(greaterThanOrEqualTo(900L)));
+    }
+
+    @Test
+    void crlf() throws Exception {
+        RunContext runContext = runContextFactory.of(ImmutableMap.of());
+        String measurement = "crlf_" + IdUtils.create();
+
+        Write task = Write.builder()
+            .connection(
+                InfluxDBConnection.builder()
+                    .url(Property.ofValue("http://localhost:8086"))
+                    .token(Property.ofValue("my-token"))
+                    .build()
+            )
+            .org(Property.ofValue("my-org"))
+            .bucket(Property.ofValue("test-bucket"))
+            .source(Property.ofValue(
+                measurement + ",sensor_id=KLM0100 temperature=71.2 1704067200000000000\r\n" +
+                    "\r\n" +
+                    measurement + ",sensor_id=KLM0200 temperature=71.3 1704067201000000000\r\n"
+            ))
+            .build();
+
+        Write.Output output = task.run(runContext);
+        assertThat(output.getRecordCount(), is(2));
+
+        FluxQuery query = FluxQuery.builder()
+            .connection(
+                InfluxDBConnection.builder()
+                    .url(Property.ofValue("http://localhost:8086"))
+                    .token(Property.ofValue("my-token"))
+                    .build()
+            )
+            .org(Property.ofValue("my-org"))
+            .query(Property.ofValue("""
+                from(bucket: "test-bucket")
+                  |> range(start: 2024-01-01T00:00:00Z)
+                  |> filter(fn: (r) => r._measurement == "%s")
+                  |> group()
+                  |> sort(columns: ["_time"])
+                """.formatted(measurement)))
+            .fetchType(Property.ofValue(FetchType.FETCH))
+            .build();
+
+        List<Map<String, Object>> rows = query.run(runContext).getRows();
+        assertThat(rows, hasSize(2));
+        assertThat(rows.get(1).get("_value"), is(71.3));
+    }
 }
@@ -0,0 +1,60 @@
+package io.kestra.plugin.influxdb.utils;
+
+import java.net.ConnectException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.influxdb.client.InfluxDBClient;
+import com.influxdb.client.InfluxDBClientFactory;
+import com.influxdb.exceptions.BadRequestException;
+import com.influxdb.exceptions.InfluxException;
+
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import retrofit2.Response;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class ClientCacheTest {
+    @Test
+    void leasesShareClientUntilInvalidated() {
+        AtomicInteger created = new AtomicInteger();
+        String key = "leasesShareClientUntilInvalidated";
+
+        InfluxDBClient first;
+        try (ClientCache.Lease lease = ClientCache.lease(key, () -> client(created))) {
+            first = lease.client();
+
+            try (ClientCache.Lease other = ClientCache.lease(key, () -> client(created))) {
+                assertThat(other.client(), sameInstance(first));
+                other.invalidate();
+            }
+
+            // still usable by the holder of the first lease
+            assertThat(lease.client(), sameInstance(first));
+        }
+
+        try (ClientCache.Lease lease = ClientCache.lease(key, () -> client(created))) {
+            assertThat(lease.client(), not(sameInstance(first)));
+            lease.invalidate();
+        }
+
+        assertThat(created.get(), is(2));
+    }
+
+    @Test
+    void transportFailure() {
+        assertThat(ClientCache.isTransportFailure(new InfluxException(new ConnectException("refused"))), is(true));
+        assertThat(ClientCache.isTransportFailure(new RuntimeException(new ConnectException("refused"))), is(true));
+        Response<Object> badRequest = Response.error(400, ResponseBody.create("{\"message\":\"error in query\"}", MediaType.get("application/json")));
+        assertThat(ClientCache.isTransportFailure(new BadRequestException(badRequest)), is(false));
+        assertThat(ClientCache.isTransportFailure(new IllegalArgumentException("error in query")), is(false));
+    }
+
+    private static InfluxDBClient client(AtomicInteger created) {
+        created.incrementAndGet();
+        return InfluxDBClientFactory.create("http://localhost:1", "token".toCharArray());
+    }
+}
@@ -0,0 +1,39 @@
+package io.kestra.plugin.influxdb.utils;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CsvReaderTest {
+    @Test
+    void header() throws Exception {
+        CsvReader reader = new CsvReader(new StringReader("\uFEFFhost,value,note\r\na,1,\"x, \"\"y\"\"\nz\"\r\n\r\nb,2,\n"), ',', null);
+
+        assertThat(reader.next(), is(Map.of("host", "a", "value", "1", "note", "x, \"y\"\nz")));
+        assertThat(reader.next(), is(Map.of("host", "b", "value", "2")));
+        assertThat(reader.next(), is(nullValue()));
+    }
+
+    @Test
+    void columns() throws Exception {
+        CsvReader reader = new CsvReader(new StringReader("a\t1\nb\t2"), '\t', List.of("host", "value"));
+
+        assertThat(reader.next(), is(Map.of("host", "a", "value", "1")));
+        assertThat(reader.next(), is(Map.of("host", "b", "value", "2")));
+        assertThat(reader.next(), is(nullValue()));
+    }
+
+    @Test
+    void unterminatedQuote() {
+        CsvReader reader = new CsvReader(new StringReader("host\n\"a"), ',', null);
+
+        assertThrows(IOException.class, reader::next);
+    }
+}
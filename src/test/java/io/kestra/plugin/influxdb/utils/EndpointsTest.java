@@ -0,0 +1,186 @@
+package io.kestra.plugin.influxdb.utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+import okhttp3.HttpUrl;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class EndpointsTest {
+    private static final MediaType JSON = MediaType.get("application/json");
+
+    @Test
+    void readsAvoidFailingReplicaAndWritesGoToPrimary() throws Exception {
+        HttpServer primary = server("primary", 503);
+        HttpServer replica = server("replica", 200);
+
+        try {
+            String primaryUrl = "http://localhost:" + primary.getAddress().getPort();
+            String replicaUrl = "http://localhost:" + replica.getAddress().getPort();
+
+            OkHttpClient client = new OkHttpClient.Builder()
+                .addInterceptor(new Endpoints(List.of(primaryUrl, replicaUrl), Endpoints.Strategy.ROUND_ROBIN, Duration.ofMinutes(1)))
+                .build();
+
+            for (int i = 0; i < 4; i++) {
+                assertThat(post(client, primaryUrl + "/api/v2/query"), is("replica"));
+            }
+
+            assertThat(post(client, primaryUrl + "/api/v2/write"), is("primary"));
+        } finally {
+            primary.stop(0);
+            replica.stop(0);
+        }
+    }
+
+    @Test
+    void roundRobin() throws Exception {
+        HttpServer first = server("first", 200);
+        HttpServer second = server("second", 200);
+
+        try {
+            String firstUrl = "http://localhost:" + first.getAddress().getPort();
+            String secondUrl = "http://localhost:" + second.getAddress().getPort();
+
+            OkHttpClient client = new OkHttpClient.Builder()
+                .addInterceptor(new Endpoints(List.of(firstUrl, secondUrl), Endpoints.Strategy.ROUND_ROBIN, Duration.ofMinutes(1)))
+                .build();
+
+            List<String> served = List.of(
+                post(client, firstUrl + "/api/v2/query"),
+                post(client, firstUrl + "/api/v2/query"),
+                post(client, firstUrl + "/api/v2/query"),
+                post(client, firstUrl + "/api/v2/query")
+            );
+
+            assertThat(served, containsInAnyOrder("first", "first", "second", "second"));
+        } finally {
+            first.stop(0);
+            second.stop(0);
+        }
+    }
+
+    @Test
+    void writingQueriesGoToPrimary() throws Exception {
+        HttpServer primary = server("primary", 200);
+        HttpServer replica = server("replica", 200);
+
+        try {
+            String primaryUrl = "http://localhost:" + primary.getAddress().getPort();
+            String replicaUrl = "http://localhost:" + replica.getAddress().getPort();
+
+            OkHttpClient client = new OkHttpClient.Builder()
+                .addInterceptor(new Endpoints(List.of(primaryUrl, replicaUrl), Endpoints.Strategy.ROUND_ROBIN, Duration.ofMinutes(1)))
+                .build();
+
+            for (int i = 0; i < 2; i++) {
+                assertThat(post(client, primaryUrl + "/api/v2/query", "{\"query\": \"from(bucket: \\\"a\\\") |> range(start: -1h) |> to(bucket: \\\"b\\\")\"}"), is("primary"));
+                assertThat(post(client, primaryUrl + "/api/v2/query", "{\"query\": \"import \\\"experimental\\\" from(bucket: \\\"a\\\") |> experimental.to(bucket: \\\"b\\\")\"}"), is("primary"));
+                assertThat(post(client, primaryUrl + "/query?db=a&q=SELECT+*+INTO+b+FROM+m", "{}"), is("primary"));
+                assertThat(post(client, primaryUrl + "/query?db=a&q=DROP+MEASUREMENT+m", "{}"), is("primary"));
+                assertThat(post(client, primaryUrl + "/query?db=a&q=SELECT+*+FROM+m%3B+DELETE+FROM+m", "{}"), is("primary"));
+            }
+
+            List<String> served = List.of(
+                post(client, primaryUrl + "/query?db=a&q=SELECT+*+FROM+m", "{}"),
+                post(client, primaryUrl + "/query?db=a&q=SHOW+MEASUREMENTS", "{}")
+            );
+            assertThat(served, containsInAnyOrder("primary", "replica"));
+        } finally {
+            primary.stop(0);
+            replica.stop(0);
+        }
+    }
+
+    @Test
+    void queryErrorIsNotRetried() throws Exception {
+        HttpServer first = server("{\"code\":\"internal error\",\"message\":\"compilation failed: error @1:1-1:5: undefined identifier nope\"}", 500);
+        HttpServer second = server("second", 200);
+
+        try {
+            String firstUrl = "http://localhost:" + first.getAddress().getPort();
+            String secondUrl = "http://localhost:" + second.getAddress().getPort();
+
+            OkHttpClient client = new OkHttpClient.Builder()
+                .addInterceptor(new Endpoints(List.of(firstUrl, secondUrl), Endpoints.Strategy.ROUND_ROBIN, Duration.ofMinutes(1)))
+                .build();
+
+            List<String> served = List.of(
+                post(client, firstUrl + "/api/v2/query"),
+                post(client, firstUrl + "/api/v2/query"),
+                post(client, firstUrl + "/api/v2/query")
+            );
+
+            // the failing server stays in rotation and its error is returned without trying the other one
+            assertThat(served, contains(containsString("compilation failed"), is("second"), containsString("compilation failed")));
+        } finally {
+            first.stop(0);
+            second.stop(0);
+        }
+    }
+
+    @Test
+    void rewriteKeepsBasePath() {
+        Endpoints endpoints = new Endpoints(
+            List.of("http://primary:8086/influx/", "https://replica/db"),
+            Endpoints.Strategy.ROUND_ROBIN,
+            Duration.ofMinutes(1)
+        );
+
+        HttpUrl rewritten = endpoints.rewrite(HttpUrl.get("http://primary:8086/influx/api/v2/query?org=my-org"), HttpUrl.get("https://replica/db"));
+
+        assertThat(rewritten.toString(), is("https://replica/db/api/v2/query?org=my-org"));
+    }
+
+    private static String post(OkHttpClient client, String url) throws IOException {
+        return post(client, url, "{}");
+    }
+
+    private static String post(OkHttpClient client, String url, String body) throws IOException {
+        Request request = new Request.Builder()
+            .url(url)
+            .post(RequestBody.create(body, JSON))
+            .build();
+
+        try (Response response = client.newCall(request).execute()) {
+            return response.body().string();
+        }
+    }
+
+    private static HttpServer server(String name, int queryStatus) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange ->
+        {
+            try {
+                exchange.getRequestBody().readAllBytes();
+
+                byte[] body = name.getBytes(StandardCharsets.UTF_8);
+                boolean query = exchange.getRequestURI().getPath().endsWith("/query");
+                exchange.sendResponseHeaders(query ? queryStatus : 200, body.length);
+
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(body);
+                }
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+        return server;
+    }
+}
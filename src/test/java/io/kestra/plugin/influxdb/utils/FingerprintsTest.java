@@ -0,0 +1,43 @@
+package io.kestra.plugin.influxdb.utils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class FingerprintsTest {
+    @Test
+    void dedup() {
+        Instant now = Instant.parse("2024-01-01T00:00:00Z");
+        Fingerprints fingerprints = new Fingerprints(Map.of(), null, Duration.ofHours(1), 100, now);
+
+        assertThat(fingerprints.add(Map.of("table", 0, "host", "a", "_value", 1.0), now), is(true));
+        assertThat(fingerprints.add(Map.of("table", 1, "host", "a", "_value", 1.0), now), is(false));
+        assertThat(fingerprints.add(Map.of("host", "a", "_value", 2.0), now), is(true));
+
+        Fingerprints restored = new Fingerprints(fingerprints.state(), null, Duration.ofHours(1), 100, now.plusSeconds(60));
+        assertThat(restored.add(Map.of("host", "a", "_value", 2.0), now.plusSeconds(60)), is(false));
+
+        Fingerprints expired = new Fingerprints(fingerprints.state(), null, Duration.ofHours(1), 100, now.plus(Duration.ofHours(2)));
+        assertThat(expired.state(), is(anEmptyMap()));
+    }
+
+    @Test
+    void keyColumnsAndMaxSize() {
+        Instant now = Instant.parse("2024-01-01T00:00:00Z");
+        Fingerprints fingerprints = new Fingerprints(Map.of(), List.of("host", "_time"), Duration.ofHours(1), 2, now);
+
+        assertThat(fingerprints.add(Map.of("host", "a", "_time", 1, "_value", 1.0), now), is(true));
+        assertThat(fingerprints.add(Map.of("host", "a", "_time", 1, "_value", 5.0), now), is(false));
+        assertThat(fingerprints.add(Map.of("host", "b", "_time", 1), now.plusSeconds(1)), is(true));
+        assertThat(fingerprints.add(Map.of("host", "c", "_time", 1), now.plusSeconds(2)), is(true));
+
+        assertThat(fingerprints.state(), is(aMapWithSize(2)));
+        assertThat(fingerprints.add(Map.of("host", "a", "_time", 1), now.plusSeconds(3)), is(true));
+    }
+}
@@ -0,0 +1,35 @@
+package io.kestra.plugin.influxdb.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class HyperLogLogTest {
+    @Test
+    void estimate() {
+        HyperLogLog sketch = new HyperLogLog();
+
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 100_000; i++) {
+                String key = "cpu,host=host-" + i;
+                sketch.add(HyperLogLog.hash(key, 0, key.length()));
+            }
+        }
+
+        assertThat((double) sketch.estimate(), is(closeTo(100_000, 3_000)));
+    }
+
+    @Test
+    void smallCardinality() {
+        SeriesCardinality cardinality = new SeriesCardinality();
+
+        for (int i = 0; i < 1_000; i++) {
+            cardinality.add("cpu,host=host-" + (i % 10) + " value=" + i + " " + i);
+            cardinality.add("mem,host=host-" + (i % 3) + " value=" + i);
+        }
+
+        assertThat(cardinality.estimates().get("cpu"), is(10L));
+        assertThat(cardinality.estimates().get("mem"), is(3L));
+    }
+}
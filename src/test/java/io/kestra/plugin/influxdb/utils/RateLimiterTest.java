@@ -0,0 +1,36 @@
+package io.kestra.plugin.influxdb.utils;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class RateLimiterTest {
+    private static final long MINUTE = TimeUnit.MINUTES.toNanos(1);
+
+    @Test
+    void idleOnceUnusedAndRefilled() {
+        RateLimiter limiter = new RateLimiter(10);
+        long now = System.nanoTime();
+
+        assertThat(limiter.isIdle(now, MINUTE), is(false));
+        assertThat(limiter.isIdle(now + 2 * MINUTE, MINUTE), is(true));
+
+        limiter.touch();
+        assertThat(limiter.isIdle(now + MINUTE / 2, MINUTE), is(false));
+    }
+
+    @Test
+    void notIdleWithDebt() {
+        // 10 permits per second: an hour to repay
+        RateLimiter limiter = new RateLimiter(10);
+        long wait = limiter.reserve(36_000);
+        long now = System.nanoTime();
+
+        assertThat(wait, greaterThan(TimeUnit.MINUTES.toNanos(59)));
+        assertThat(limiter.isIdle(now + 2 * MINUTE, MINUTE), is(false));
+        assertThat(limiter.isIdle(now + 61 * MINUTE, MINUTE), is(true));
+    }
+}
@@ -0,0 +1,128 @@
+package io.kestra.plugin.influxdb.utils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+import io.kestra.core.junit.annotations.KestraTest;
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.runners.RunContextFactory;
+
+import jakarta.inject.Inject;
+import reactor.core.publisher.Flux;
+import reactor.util.function.Tuple2;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@KestraTest
+class SeriesSorterTest {
+    @Inject
+    private RunContextFactory runContextFactory;
+
+    @Test
+    void window() {
+        SeriesSorter sorter = new SeriesSorter(runContextFactory.of(ImmutableMap.of()), 3);
+
+        List<String> sorted = sorter.window(Flux.just(
+            "cpu,host=b v=1 3",
+            "cpu,host=a v=1 2",
+            "cpu,host=b v=1 1",
+            "cpu,host=a v=1 1",
+            "cpu,host=c v=1 5"
+        )).collectList().block();
+
+        // each window of 3 records is sorted on its own
+        assertThat(sorted, contains(
+            "cpu,host=a v=1 2",
+            "cpu,host=b v=1 1",
+            "cpu,host=b v=1 3",
+            "cpu,host=a v=1 1",
+            "cpu,host=c v=1 5"
+        ));
+    }
+
+    @Test
+    void full() throws Exception {
+        RunContext runContext = runContextFactory.of(ImmutableMap.of());
+        SeriesSorter sorter = new SeriesSorter(runContext, 2);
+        AtomicLong spilled = new AtomicLong();
+
+        List<String> sorted = sorter.full(Flux.just(
+                "mem,host=a v=1 7",
+                "cpu,host=b v=1 3",
+                "cpu,host=a v=1 2",
+                "mem,host=a v=1 1",
+                "cpu,host=b v=1 1",
+                "cpu,host=a v=1 9",
+                "cpu,host=a v=1 5"
+            ))
+            .index()
+            .doOnNext(indexed ->
+            {
+                if (indexed.getT1() == 0) {
+                    spilled.set(runFiles(runContext));
+                }
+            })
+            .map(Tuple2::getT2)
+            .collectList()
+            .block();
+
+        assertThat(sorted, contains(
+            "cpu,host=a v=1 2",
+            "cpu,host=a v=1 5",
+            "cpu,host=a v=1 9",
+            "cpu,host=b v=1 1",
+            "cpu,host=b v=1 3",
+            "mem,host=a v=1 1",
+            "mem,host=a v=1 7"
+        ));
+
+        // 7 records by runs of 2, merged once they are all spilled, then deleted
+        assertThat(spilled.get(), is(4L));
+        assertThat(runFiles(runContext), is(0L));
+    }
+
+    @Test
+    void recordsWithoutTimestampFirst() {
+        SeriesSorter sorter = new SeriesSorter(runContextFactory.of(ImmutableMap.of()), 10);
+
+        List<String> sorted = sorter.window(Flux.just(
+            "cpu,host=a v=1 2",
+            "cpu,host=a v=2",
+            "cpu,host=a v=3 1"
+        )).collectList().block();
+
+        assertThat(sorted, contains("cpu,host=a v=2", "cpu,host=a v=3 1", "cpu,host=a v=1 2"));
+    }
+
+    @Test
+    void timestamp() {
+        assertThat(timestamp("cpu,host=a v=1 1700000000000000000"), is(1700000000000000000L));
+        assertThat(timestamp("cpu,host=a v=1 -5"), is(-5L));
+        assertThat(timestamp("cpu,host=a v=1"), is(Long.MIN_VALUE));
+        assertThat(timestamp("cpu v=1 "), is(Long.MIN_VALUE));
+        assertThat(timestamp("cpu,host=a msg=\"a b\""), is(Long.MIN_VALUE));
+        assertThat(timestamp("cpu,host=a msg=\"a 12\""), is(Long.MIN_VALUE));
+        assertThat(timestamp("cpu,host=a v=1 99999999999999999999"), is(Long.MIN_VALUE));
+    }
+
+    private static long timestamp(String line) {
+        return LineProtocol.timestamp(line, LineProtocol.seriesEnd(line));
+    }
+
+    private static long runFiles(RunContext runContext) {
+        try (Stream<Path> files = Files.list(runContext.workingDir().path())) {
+            return files.filter(path -> path.toString().endsWith(".lp")).count();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
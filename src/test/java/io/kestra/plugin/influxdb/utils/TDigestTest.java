@@ -0,0 +1,51 @@
+package io.kestra.plugin.influxdb.utils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class TDigestTest {
+    @Test
+    void quantiles() {
+        TDigest digest = new TDigest(100);
+        Random random = new Random(42);
+
+        for (int i = 0; i < 100_000; i++) {
+            digest.add(random.nextDouble() * 1_000);
+        }
+
+        assertThat(digest.quantile(0), is(lessThan(1.0)));
+        assertThat(digest.quantile(0.5), is(closeTo(500, 10)));
+        assertThat(digest.quantile(0.95), is(closeTo(950, 5)));
+        assertThat(digest.quantile(0.99), is(closeTo(990, 2)));
+        assertThat(digest.quantile(1), is(greaterThan(999.0)));
+    }
+
+    @Test
+    void summaries() {
+        Summaries summaries = new Summaries("_value", null, List.of(0.5, 0.999));
+
+        for (int i = 1; i <= 1_000; i++) {
+            summaries.add(Map.of("_measurement", "cpu", "host", "host-" + (i % 2), "_time", i, "_value", (double) i));
+        }
+        summaries.add(Map.of("_measurement", "cpu", "host", "host-0", "_value", "not a number"));
+
+        List<Map<String, Object>> results = summaries.results();
+
+        assertThat(summaries.rows(), is(1_001L));
+        assertThat(results, hasSize(2));
+        assertThat(results.getFirst().get("host"), is("host-1"));
+        assertThat(results.getFirst().get("_measurement"), is("cpu"));
+        assertThat(results.getFirst().get("count"), is(500L));
+        assertThat(results.getFirst().get("min"), is(1.0));
+        assertThat(results.getFirst().get("max"), is(999.0));
+        assertThat(results.getFirst().get("mean"), is(500.0));
+        assertThat((Double) results.getFirst().get("p50"), is(closeTo(500, 5)));
+        assertThat(results.getFirst(), hasKey("p99_9"));
+    }
+}
@@ -0,0 +1,95 @@
+package io.kestra.plugin.influxdb.utils;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.influxdb.client.write.Point;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class TagDictionaryTest {
+    @Test
+    void sameEncodingAsPoint() {
+        TagDictionary dictionary = new TagDictionary(List.of("region", "host", "empty"), 10);
+        String value = "eu west,1=a\tb";
+
+        String expected = Point.measurement("cpu")
+            .addTag("host", "server-01")
+            .addTag("region", value)
+            .addField("usage", 1.5)
+            .toLineProtocol();
+
+        StringBuilder line = dictionary.appendTagSet(new StringBuilder("cpu"), Map.of("host", "server-01", "region", value, "empty", "", "usage", 1.5))
+            .append(" usage=");
+        LineProtocol.appendField(line, 1.5);
+
+        assertThat(line.toString(), is(expected));
+    }
+
+    @Test
+    void cacheAndEviction() {
+        TagDictionary dictionary = new TagDictionary(List.of("host", "region"), 2);
+
+        assertThat(tagSet(dictionary, Map.of("host", "a b", "region", "eu")), is(",host=a\\ b,region=eu"));
+        assertThat(tagSet(dictionary, Map.of("host", "a b", "region", "eu", "value", 1)), is(",host=a\\ b,region=eu"));
+        assertThat(dictionary.hits(), is(2L));
+        assertThat(dictionary.misses(), is(2L));
+
+        // a new combination of known values is still served from the cache
+        assertThat(tagSet(dictionary, Map.of("host", "eu", "region", "a b")), is(",host=eu,region=a\\ b"));
+        assertThat(dictionary.hits(), is(4L));
+        assertThat(dictionary.misses(), is(2L));
+
+        // 42 evicts "eu", the least recently used value
+        assertThat(tagSet(dictionary, Map.of("host", 42)), is(",host=42"));
+        assertThat(dictionary.misses(), is(3L));
+        tagSet(dictionary, Map.of("host", "a b"));
+        assertThat(dictionary.misses(), is(3L));
+        tagSet(dictionary, Map.of("region", "eu"));
+        assertThat(dictionary.misses(), is(4L));
+    }
+
+    @Test
+    void manyCombinations() {
+        TagDictionary dictionary = new TagDictionary(List.of("host", "region"), 20);
+
+        for (int host = 0; host < 10; host++) {
+            for (int region = 0; region < 10; region++) {
+                assertThat(tagSet(dictionary, Map.of("host", "h" + host, "region", "r" + region)), is(",host=h" + host + ",region=r" + region));
+            }
+        }
+
+        // 100 combinations of 20 values: each value is only escaped once
+        assertThat(dictionary.misses(), is(20L));
+        assertThat(dictionary.hits(), is(180L));
+    }
+
+    @Test
+    void fields() {
+        StringBuilder sb = new StringBuilder();
+
+        assertThat(LineProtocol.appendField(sb, 42L), is(true));
+        sb.append(' ');
+        LineProtocol.appendField(sb, true);
+        sb.append(' ');
+        LineProtocol.appendField(sb, "say \"hi\" \\o/");
+        assertThat(sb.toString(), is("42i true \"say \\\"hi\\\" \\\\o/\""));
+
+        assertThat(LineProtocol.appendField(sb, Double.NaN), is(false));
+        assertThat(LineProtocol.appendField(sb, Double.POSITIVE_INFINITY), is(false));
+        assertThat(sb.toString(), is("42i true \"say \\\"hi\\\" \\\\o/\""));
+    }
+
+    @Test
+    void measurementKeepsEquals() {
+        assertThat(TagDictionary.escape("a=b c", false), is("a=b\\ c"));
+        assertThat(TagDictionary.escape("plain", true), is("plain"));
+    }
+
+    private static String tagSet(TagDictionary dictionary, Map<String, Object> record) {
+        return dictionary.appendTagSet(new StringBuilder(), record).toString();
+    }
+}
@@ -0,0 +1,165 @@
+package io.kestra.plugin.influxdb.utils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.influxdb.client.write.Point;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class WindowAggregatorTest {
+    // aligned on a minute
+    private static final Instant START = Instant.ofEpochSecond(1_700_000_040L);
+
+    @Test
+    void functionsPerWindowAndSeries() {
+        WindowAggregator aggregator = aggregator();
+
+        assertThat(aggregator.add(record("a", 0, 1)), empty());
+        assertThat(aggregator.add(record("a", 10, 3)), empty());
+        assertThat(aggregator.add(record("b", 5, 4)), empty());
+        assertThat(aggregator.add(record("a", 20, 2)), empty());
+
+        // the next window of host a closes the first one, host b stays open
+        List<Point> closed = aggregator.add(record("a", 60, 10));
+        assertThat(closed, hasSize(1));
+
+        String first = closed.getFirst().toLineProtocol();
+        assertThat(series(first), is("cpu,host=a"));
+        assertThat(time(first), is(nanos(0)));
+        assertThat(fields(first), is(Map.of(
+            "mean", 2.0,
+            "min", 1.0,
+            "max", 3.0,
+            "sum", 6.0,
+            "last", 2.0,
+            "count", 3.0
+        )));
+        assertThat(first, containsString("count=3i"));
+
+        Map<String, String> flushed = new HashMap<>();
+        aggregator.flush().forEach(point -> flushed.put(series(point.toLineProtocol()), point.toLineProtocol()));
+        assertThat(flushed.keySet(), containsInAnyOrder("cpu,host=a", "cpu,host=b"));
+
+        String secondOfA = flushed.get("cpu,host=a");
+        assertThat(time(secondOfA), is(nanos(60)));
+        assertThat(fields(secondOfA), is(Map.of(
+            "mean", 10.0,
+            "min", 10.0,
+            "max", 10.0,
+            "sum", 10.0,
+            "last", 10.0,
+            "count", 1.0
+        )));
+
+        String firstOfB = flushed.get("cpu,host=b");
+        assertThat(time(firstOfB), is(nanos(0)));
+        assertThat(fields(firstOfB), is(Map.of(
+            "mean", 4.0,
+            "min", 4.0,
+            "max", 4.0,
+            "sum", 4.0,
+            "last", 4.0,
+            "count", 1.0
+        )));
+
+        assertThat(aggregator.input(), is(5L));
+        assertThat(aggregator.late(), is(0L));
+    }
+
+    @Test
+    void lateRecordsAreDroppedAndCounted() {
+        WindowAggregator aggregator = aggregator();
+
+        aggregator.add(record("a", 0, 1));
+        assertThat(aggregator.add(record("a", 60, 2)), hasSize(1));
+
+        // the first window of host a was already emitted
+        assertThat(aggregator.add(record("a", 30, 100)), empty());
+        // but host b has no open window yet
+        assertThat(aggregator.add(record("b", 30, 5)), empty());
+
+        List<Point> flushed = aggregator.flush();
+        assertThat(flushed, hasSize(2));
+        flushed.stream()
+            .map(Point::toLineProtocol)
+            .filter(line -> series(line).equals("cpu,host=a"))
+            .forEach(line -> assertThat(fields(line).get("sum"), is(2.0)));
+
+        assertThat(aggregator.input(), is(4L));
+        assertThat(aggregator.late(), is(1L));
+    }
+
+    @Test
+    void windowsWithoutGroupBy() {
+        Map<String, WindowAggregator.Function> functions = Map.of("sum", WindowAggregator.Function.SUM);
+        WindowAggregator aggregator = new WindowAggregator("cpu", "time", null, functions, Duration.ofMinutes(1));
+
+        aggregator.add(Map.of("time", START, "host", "a", "sum", 1));
+        aggregator.add(Map.of("time", START.plusSeconds(1), "host", "b", "sum", 2));
+
+        List<Point> flushed = aggregator.flush();
+        assertThat(flushed, hasSize(1));
+        assertThat(series(flushed.getFirst().toLineProtocol()), is("cpu"));
+        assertThat(fields(flushed.getFirst().toLineProtocol()).get("sum"), is(3.0));
+    }
+
+    private static WindowAggregator aggregator() {
+        Map<String, WindowAggregator.Function> functions = new LinkedHashMap<>();
+        functions.put("mean", WindowAggregator.Function.MEAN);
+        functions.put("min", WindowAggregator.Function.MIN);
+        functions.put("max", WindowAggregator.Function.MAX);
+        functions.put("sum", WindowAggregator.Function.SUM);
+        functions.put("last", WindowAggregator.Function.LAST);
+        functions.put("count", WindowAggregator.Function.COUNT);
+
+        return new WindowAggregator("cpu", "time", List.of("host"), functions, Duration.ofMinutes(1));
+    }
+
+    /**
+     * A record with the same value for every aggregated field.
+     */
+    private static Map<String, Object> record(String host, long seconds, double value) {
+        Map<String, Object> record = new HashMap<>();
+        record.put("time", START.plusSeconds(seconds));
+        record.put("host", host);
+        for (String field : List.of("mean", "min", "max", "sum", "last", "count")) {
+            record.put(field, value);
+        }
+        return record;
+    }
+
+    private static long nanos(long seconds) {
+        return (START.getEpochSecond() + seconds) * 1_000_000_000L;
+    }
+
+    private static String series(String line) {
+        return line.substring(0, LineProtocol.seriesEnd(line));
+    }
+
+    private static long time(String line) {
+        return Long.parseLong(line.substring(line.lastIndexOf(' ') + 1));
+    }
+
+    /**
+     * Numeric fields of a line, whatever the float formatting and with the integer suffix removed.
+     */
+    private static Map<String, Double> fields(String line) {
+        String fieldSet = line.substring(LineProtocol.seriesEnd(line) + 1, line.lastIndexOf(' '));
+
+        Map<String, Double> fields = new HashMap<>();
+        for (String field : fieldSet.split(",")) {
+            int equals = field.indexOf('=');
+            String value = field.substring(equals + 1);
+            fields.put(field.substring(0, equals), Double.parseDouble(value.endsWith("i") ? value.substring(0, value.length() - 1) : value));
+        }
+        return fields;
+    }
+}
@@ -0,0 +1,103 @@
+package io.kestra.plugin.influxdb.utils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableMap;
+import com.influxdb.exceptions.InfluxException;
+
+import io.kestra.core.junit.annotations.KestraTest;
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.runners.RunContextFactory;
+
+import jakarta.inject.Inject;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@KestraTest
+class WriteSpoolTest {
+    @Inject
+    private RunContextFactory runContextFactory;
+
+    @Test
+    void replayInOrderAfterOutage() throws Exception {
+        RunContext runContext = runContextFactory.of(ImmutableMap.of());
+        List<String> written = new CopyOnWriteArrayList<>();
+        AtomicInteger failures = new AtomicInteger();
+
+        try (WriteSpool spool = new WriteSpool(runContext, 1024 * 1024, Duration.ofMillis(10), lines ->
+        {
+            if (failures.getAndIncrement() < 3) {
+                throw new InfluxException("Connection refused");
+            }
+            written.addAll(lines);
+            return lines.size();
+        })) {
+            spool.append(List.of("cpu v=1 1", "cpu v=2 2"));
+            spool.append(List.of("cpu v=3 3"));
+            assertThat(spool.isActive(), is(true));
+
+            spool.await(Duration.ofSeconds(10));
+
+            assertThat(spool.isActive(), is(false));
+            assertThat(spool.spooled(), is(2));
+            assertThat(written, contains("cpu v=1 1", "cpu v=2 2", "cpu v=3 3"));
+            assertThat(spoolFiles(runContext), is(0L));
+        }
+    }
+
+    @Test
+    void reportRecordsRejectedOnReplay() throws Exception {
+        RunContext runContext = runContextFactory.of(ImmutableMap.of());
+        AtomicInteger rejected = new AtomicInteger();
+
+        // segments of 16 bytes: each batch goes to its own file
+        try (WriteSpool spool = new WriteSpool(runContext, 64, Duration.ofMillis(10), lines -> lines.size() - 1)) {
+            spool.append(List.of("cpu v=1 1", "cpu v=2 2"), rejected::addAndGet);
+            spool.append(List.of("cpu v=3 3", "cpu v=4 4"), rejected::addAndGet);
+            spool.append(List.of("cpu v=5 5"), rejected::addAndGet);
+
+            spool.await(Duration.ofSeconds(10));
+
+            assertThat(rejected.get(), is(2));
+            assertThat(spoolFiles(runContext), is(0L));
+        }
+    }
+
+    @Test
+    void failOnNonRetriableError() throws Exception {
+        RunContext runContext = runContextFactory.of(ImmutableMap.of());
+
+        try (WriteSpool spool = new WriteSpool(runContext, 1024 * 1024, Duration.ofMillis(10), lines ->
+        {
+            throw new IllegalArgumentException("invalid line");
+        })) {
+            spool.append(List.of("cpu v=1 1"));
+
+            IllegalStateException exception = assertThrows(IllegalStateException.class, () -> spool.await(Duration.ofSeconds(10)));
+            assertThat(exception.getMessage(), containsString("invalid line"));
+        }
+    }
+
+    @Test
+    void isRetriable() {
+        assertThat(WriteSpool.isRetriable(new InfluxException("Connection refused")), is(true));
+        assertThat(WriteSpool.isRetriable(new IllegalArgumentException("invalid line")), is(false));
+    }
+
+    private static long spoolFiles(RunContext runContext) throws IOException {
+        try (Stream<Path> files = Files.list(runContext.workingDir().path())) {
+            return files.filter(path -> path.toString().endsWith(".spool")).count();
+        }
+    }
+}